@@ -0,0 +1,93 @@
+package com.shah.employees.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import com.shah.employees.EmployeesServiceApplication;
+import com.shah.employees.model.Employee;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ * Boots the real application against its own in-memory H2 database, without a web server unless
+ * asked for one on a random port, and seeds it with a given number of employees. Employee n has
+ * first name "first-n", last name "last-n" and email "employee-n@bench.io", so benchmarks can pick
+ * existing rows by index.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+	private static final int SEED_CHUNK = 500;
+
+	private final ConfigurableApplicationContext context;
+
+	private final List<Long> ids;
+
+	BenchmarkContext(int tableSize) {
+		this(tableSize, WebApplicationType.NONE);
+	}
+
+	//extra arguments are passed on to the application, e.g. --spring.profiles.active=virtual-threads
+	BenchmarkContext(int tableSize, WebApplicationType webApplicationType, String... args) {
+
+		List<String> arguments = new ArrayList<>(List.of(
+				//arguments rather than builder properties, which would lose to application.properties
+				"--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+				"--spring.jpa.show-sql=false",
+				"--spring.main.banner-mode=off",
+				"--logging.level.root=warn",
+				"--server.port=0",
+				//the harness sends everything from one address, it measures the server and not the rate limit
+				"--employees.rate-limit.enabled=false"));
+		arguments.addAll(List.of(args));
+		this.context = new SpringApplicationBuilder(EmployeesServiceApplication.class)
+				.web(webApplicationType)
+				.run(arguments.toArray(String[]::new));
+		this.ids = new ArrayList<>(tableSize);
+
+		EmployeeService employeeService = serviceImpl();
+		for(int from = 0; from < tableSize; from += SEED_CHUNK) {
+			List<Employee> chunk = new ArrayList<>(SEED_CHUNK);
+			for(int n = from; n < Math.min(from + SEED_CHUNK, tableSize); n++) {
+				chunk.add(employee(n));
+			}
+			employeeService.saveEmployees(chunk);
+			chunk.forEach(employee -> ids.add(employee.getId()));
+		}
+	}
+
+	static Employee employee(long n) {
+		return Employee.builder()
+				.firstName("first-" + n)
+				.lastName("last-" + n)
+				.email("employee-" + n + "@bench.io")
+				.build();
+	}
+
+	//the undecorated service, so results measure the database path and not the read-through cache
+	EmployeeService serviceImpl() {
+		return context.getBean("employeeServiceImpl", EmployeeService.class);
+	}
+
+	<T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	//the port a web instance was started on
+	int port() {
+		return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+	}
+
+	List<Long> ids() {
+		return ids;
+	}
+
+	@Override
+	public void close() {
+		context.close();
+	}
+
+}
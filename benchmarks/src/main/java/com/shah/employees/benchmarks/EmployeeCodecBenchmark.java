@@ -0,0 +1,90 @@
+package com.shah.employees.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shah.employees.controller.EmployeeCodecs;
+import com.shah.employees.controller.EmployeeJsonModule;
+import com.shah.employees.model.Employee;
+
+/**
+ * @author Shahrukh
+ *
+ * Encoding and decoding of employee lists in each format the API negotiates, with the mappers
+ * {@link EmployeeCodecs} builds from the same defaults Spring MVC uses. codec=bean runs Jackson's
+ * introspected serializers, codec=streaming the hand-written ones from {@link EmployeeJsonModule} the
+ * application registers. Add -prof gc for bytes allocated per operation (gc.alloc.rate.norm). The
+ * encoded size of every list is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeCodecBenchmark {
+
+	@Param({"application/json", "application/cbor", EmployeeCodecs.APPLICATION_SMILE_VALUE})
+	private String format;
+
+	@Param({"bean", "streaming"})
+	private String codec;
+
+	@Param({"1", "20", "200", "1000"})
+	private int listSize;
+
+	private ObjectWriter writer;
+
+	private ObjectReader reader;
+
+	private List<Employee> employees;
+
+	private byte[] encoded;
+
+	@Setup
+	public void setup() throws JsonProcessingException {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if(codec.equals("streaming")) {
+			builder.modulesToInstall(new EmployeeJsonModule());
+		}
+		EmployeeCodecs codecs = new EmployeeCodecs(builder.build());
+		ObjectMapper objectMapper = codecs.mapperFor(MediaType.parseMediaType(format));
+		writer = objectMapper.writerFor(new TypeReference<List<Employee>>() {});
+		reader = objectMapper.readerFor(new TypeReference<List<Employee>>() {});
+		employees = LongStream.range(0, listSize)
+				.mapToObj(n -> BenchmarkContext.employee(n).toBuilder().id(n + 1).build())
+				.toList();
+		encoded = writer.writeValueAsBytes(employees);
+		System.out.printf("%s, %d employees: %d bytes%n", format, listSize, encoded.length);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws JsonProcessingException {
+		return writer.writeValueAsBytes(employees);
+	}
+
+	@Benchmark
+	public List<Employee> deserialize() throws IOException {
+		return reader.readValue(encoded);
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.shah.employees.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.repository.EmployeeRepository;
+
+/**
+ * @author Shahrukh
+ *
+ * The read queries declared on {@link EmployeeRepository}. The JPQL name lookups seek the
+ * ix_employees_first_last index, so the larger table sizes should cost them little.
+ * Multi-gets and pages are the *View* constructor projections the GET endpoints use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private static final int BULK_SIZE = 50;
+
+	@Param({"1000", "10000", "100000"})
+	private int tableSize;
+
+	private BenchmarkContext context;
+
+	private EmployeeRepository employeeRepository;
+
+	private List<Long> ids;
+
+	@Setup
+	public void setup() {
+		context = new BenchmarkContext(tableSize);
+		employeeRepository = context.getBean(EmployeeRepository.class);
+		ids = context.ids();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<Employee> findByEmail() {
+		return employeeRepository.findByEmail(email(randomEmployee()));
+	}
+
+	@Benchmark
+	public List<Employee> findByJPQLIndexedParams() {
+		int n = randomEmployee();
+		return employeeRepository.findByJPQLIndexedParams("first-" + n, "last-" + n);
+	}
+
+	@Benchmark
+	public List<Employee> findByJPQLNamedParams() {
+		int n = randomEmployee();
+		return employeeRepository.findByJPQLNamedParams("first-" + n, "last-" + n);
+	}
+
+	@Benchmark
+	public Employee findByNativeSQLIndexedParam() {
+		return employeeRepository.findByNativeSQLIndexedParam(email(randomEmployee()));
+	}
+
+	@Benchmark
+	public Employee findByNativeSQLNamedParam() {
+		return employeeRepository.findByNativeSQLNamedParam(email(randomEmployee()));
+	}
+
+	@Benchmark
+	public List<EmployeeView> findViewsByEmailIn() {
+		return employeeRepository.findViewsByEmailIn(randomEmails());
+	}
+
+	@Benchmark
+	public List<EmployeeView> findViewPageAfterId() {
+		return employeeRepository.findViewPageAfterId(ids.get(randomEmployee()), Limit.of(PAGE_SIZE));
+	}
+
+	@Benchmark
+	public List<EmployeeView> findViewPageBeforeId() {
+		return employeeRepository.findViewPageBeforeId(ids.get(randomEmployee()), Limit.of(PAGE_SIZE));
+	}
+
+	@Benchmark
+	public Optional<Long> findVersionById() {
+		return employeeRepository.findVersionById(ids.get(randomEmployee()));
+	}
+
+	@Benchmark
+	public Set<String> findExistingEmails() {
+		return employeeRepository.findExistingEmails(randomEmails());
+	}
+
+	private int randomEmployee() {
+		return ThreadLocalRandom.current().nextInt(ids.size());
+	}
+
+	private List<String> randomEmails() {
+		return ThreadLocalRandom.current().ints(BULK_SIZE, 0, ids.size()).mapToObj(EmployeeRepositoryBenchmark::email).toList();
+	}
+
+	private static String email(int n) {
+		return "employee-" + n + "@bench.io";
+	}
+
+}
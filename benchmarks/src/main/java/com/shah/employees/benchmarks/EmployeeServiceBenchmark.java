@@ -0,0 +1,78 @@
+package com.shah.employees.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import com.shah.employees.model.Employee;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ * {@link com.shah.employees.service.EmployeeServiceImpl} against embedded H2 at several table sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	private int tableSize;
+
+	private BenchmarkContext context;
+
+	private EmployeeService employeeService;
+
+	private List<Long> ids;
+
+	//inserts continue numbering after the seeded rows so every email stays unique
+	private AtomicLong nextEmployee;
+
+	@Setup
+	public void setup() {
+		context = new BenchmarkContext(tableSize);
+		employeeService = context.serviceImpl();
+		ids = context.ids();
+		nextEmployee = new AtomicLong(tableSize);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	//grows the table by one row per call, a few seconds of measurement is small next to the seeded size
+	@Benchmark
+	public Employee saveEmployee() {
+		return employeeService.saveEmployee(BenchmarkContext.employee(nextEmployee.getAndIncrement()));
+	}
+
+	@Benchmark
+	public Optional<Employee> getEmployeeById() {
+		return employeeService.getEmployeeById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<Employee> getAllEmployees() {
+		return employeeService.getAllEmployees();
+	}
+
+}
@@ -0,0 +1,299 @@
+package com.shah.employees.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.data.domain.Sort;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shah.employees.service.EmployeeCursor;
+
+/**
+ * @author Shahrukh
+ *
+ * Open-model load generator against a real instance of the service on a random port. Requests are
+ * started on a fixed schedule, one every 1/rate seconds, whether or not earlier ones have completed,
+ * and each latency is measured from the time its request was scheduled to start. A stalled server
+ * therefore shows up in the tail instead of silently lowering the offered load (coordinated omission).
+ *
+ * Options are --load.rate, --load.warmup, --load.duration, --load.mix, --load.seed, --load.timeout and
+ * --load.result; anything else is handed to the application, e.g. --spring.profiles.active=virtual-threads.
+ */
+public final class LoadTestHarness {
+
+	private static final String OPTION_PREFIX = "--load.";
+
+	private static final String DEFAULT_MIX = "create=10,get=55,list=20,update=10,delete=5";
+
+	private static final int PAGE_SIZE = 20;
+
+	enum Operation {
+		CREATE, GET, LIST, UPDATE, DELETE
+	}
+
+	private final HttpClient client;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final String baseUrl;
+
+	private final List<Long> seededIds;
+
+	private final Duration timeout;
+
+	//employees created by this run, the only ones deletes remove so gets and updates never miss
+	private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+
+	private final AtomicLong nextEmployee;
+
+	private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+	public LoadTestHarness(int port, List<Long> seededIds, Duration timeout) {
+		this.client = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(timeout)
+				.build();
+		this.baseUrl = "http://localhost:" + port + "/api/employees";
+		this.seededIds = seededIds;
+		this.timeout = timeout;
+		this.nextEmployee = new AtomicLong(seededIds.size());
+		for(Operation operation : Operation.values()) {
+			stats.put(operation, new OperationStats());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		Map<String, String> options = new HashMap<>();
+		List<String> applicationArgs = new ArrayList<>();
+		for(String arg : args) {
+			int separator = arg.indexOf('=');
+			if(arg.startsWith(OPTION_PREFIX) && separator > 0) {
+				options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+			} else {
+				applicationArgs.add(arg);
+			}
+		}
+		int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+		Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+		Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+		Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+		int seed = Integer.parseInt(options.getOrDefault("seed", "10000"));
+		Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "10s"));
+		Path result = Path.of(options.getOrDefault("result", "target/loadtest-result.json"));
+
+		try(BenchmarkContext context = new BenchmarkContext(seed, WebApplicationType.SERVLET, applicationArgs.toArray(String[]::new))) {
+			LoadTestHarness harness = new LoadTestHarness(context.port(), context.ids(), timeout);
+			harness.run(rate, warmup, duration, mix);
+
+			Map<String, Object> report = new LinkedHashMap<>();
+			report.put("rate", rate);
+			report.put("warmupSeconds", warmup.toSeconds());
+			report.put("durationSeconds", duration.toSeconds());
+			report.put("mix", mix);
+			report.put("seed", seed);
+			report.put("applicationArgs", applicationArgs);
+			report.putAll(harness.report(duration, System.out));
+			Files.createDirectories(result.toAbsolutePath().getParent());
+			harness.objectMapper.writerWithDefaultPrettyPrinter().writeValue(result.toFile(), report);
+			try(PrintStream hgrm = new PrintStream(Files.newOutputStream(result.resolveSibling("loadtest-latency.hgrm")))) {
+				harness.total().outputPercentileDistribution(hgrm, 1000.0);
+			}
+			System.out.println("Results written to " + result.toAbsolutePath());
+		}
+	}
+
+	//e.g. "create=10,get=60,list=20,update=5,delete=5", weights are relative and need not add up to 100
+	static Map<Operation, Integer> parseMix(String mix) {
+
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for(String entry : mix.split(",")) {
+			String[] parts = entry.trim().split("=");
+			if(parts.length != 2) {
+				throw new IllegalArgumentException("Expected operation=weight in load mix but got: " + entry);
+			}
+			int weight = Integer.parseInt(parts[1].trim());
+			if(weight < 0) {
+				throw new IllegalArgumentException("Load mix weights cannot be negative: " + entry);
+			}
+			weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+		}
+		if(weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+			throw new IllegalArgumentException("Load mix has no operation with a positive weight: " + mix);
+		}
+		return weights;
+	}
+
+	public void run(int rate, Duration warmup, Duration duration, Map<Operation, Integer> mix) {
+
+		Operation[] schedule = mix.entrySet().stream()
+				.flatMap(weight -> Collections.nCopies(weight.getValue(), weight.getKey()).stream())
+				.toArray(Operation[]::new);
+		double intervalNanos = (double) TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		long measureFrom = start + warmup.toNanos();
+		long end = measureFrom + duration.toNanos();
+
+		//one virtual thread per request, so a slow server never holds back the schedule
+		try(ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for(long sent = 0; ; sent++) {
+				long intendedStart = start + (long) (sent * intervalNanos);
+				if(intendedStart >= end) {
+					break;
+				}
+				for(long wait = intendedStart - System.nanoTime(); wait > 0; wait = intendedStart - System.nanoTime()) {
+					LockSupport.parkNanos(wait);
+				}
+				Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+				boolean measured = intendedStart >= measureFrom;
+				executor.execute(() -> execute(operation, intendedStart, measured));
+			}
+		}
+	}
+
+	private void execute(Operation operation, long intendedStart, boolean measured) {
+
+		HttpRequest request = request(operation);
+		if(request == null) {
+			if(measured) {
+				stats.get(operation).skipped.increment();
+			}
+			return;
+		}
+		int status;
+		try {
+			HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+			status = response.statusCode();
+			if(operation == Operation.CREATE && status == 201) {
+				createdIds.add(objectMapper.readTree(response.body()).get("id").asLong());
+			}
+		} catch(IOException e) {
+			status = -1;
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		if(measured) {
+			stats.get(operation).record(System.nanoTime() - intendedStart, status);
+		}
+	}
+
+	//null when there is nothing to do, only a delete before any create has completed
+	private HttpRequest request(Operation operation) {
+
+		int n = ThreadLocalRandom.current().nextInt(seededIds.size());
+		long seededId = seededIds.get(n);
+		return switch(operation) {
+			case CREATE -> json(HttpRequest.newBuilder(URI.create(baseUrl)), "POST", nextEmployee.getAndIncrement(), "last");
+			case GET -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + seededId)).timeout(timeout).GET().build();
+			case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "?size=" + PAGE_SIZE + "&cursor="
+					+ new EmployeeCursor(seededId, Sort.Direction.ASC).encode())).timeout(timeout).GET().build();
+			case UPDATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/" + seededId)), "PUT", n,
+					"updated-" + nextEmployee.getAndIncrement());
+			case DELETE -> {
+				Long createdId = createdIds.poll();
+				yield createdId == null ? null
+						: HttpRequest.newBuilder(URI.create(baseUrl + "/" + createdId)).timeout(timeout).DELETE().build();
+			}
+		};
+	}
+
+	//same naming scheme as the seeded rows, so an update keeps the employee's email unique
+	private HttpRequest json(HttpRequest.Builder builder, String method, long n, String lastName) {
+
+		String body = "{\"firstName\":\"first-" + n + "\",\"lastName\":\"" + lastName + "\",\"email\":\"employee-" + n + "@bench.io\"}";
+		return builder.timeout(timeout)
+				.header("Content-Type", "application/json")
+				.method(method, HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+
+	Histogram total() {
+
+		Histogram total = new Histogram(3);
+		stats.values().forEach(operation -> total.add(operation.latencies));
+		return total;
+	}
+
+	//prints a summary table and returns the same numbers, latencies in milliseconds
+	Map<String, Object> report(Duration duration, PrintStream out) {
+
+		Map<String, Object> operations = new LinkedHashMap<>();
+		out.printf("%-8s %9s %7s %8s %9s %9s %9s %9s %9s%n",
+				"op", "count", "errors", "skipped", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+		long errors = 0;
+		for(Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+			OperationStats operation = entry.getValue();
+			errors += operation.errors.sum();
+			operations.put(entry.getKey().name().toLowerCase(),
+					summary(entry.getKey().name().toLowerCase(), operation.latencies, operation.errors.sum(), operation.skipped.sum(), duration, out));
+		}
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("operations", operations);
+		report.put("total", summary("total", total(), errors, stats.values().stream().mapToLong(operation -> operation.skipped.sum()).sum(), duration, out));
+		return report;
+	}
+
+	private static Map<String, Object> summary(String name, Histogram latencies, long errors, long skipped, Duration duration, PrintStream out) {
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("count", latencies.getTotalCount());
+		summary.put("errors", errors);
+		summary.put("skipped", skipped);
+		summary.put("throughput", latencies.getTotalCount() / (duration.toMillis() / 1000.0));
+		summary.put("p50", millis(latencies.getValueAtPercentile(50)));
+		summary.put("p99", millis(latencies.getValueAtPercentile(99)));
+		summary.put("p99.9", millis(latencies.getValueAtPercentile(99.9)));
+		summary.put("max", millis(latencies.getMaxValue()));
+		out.printf("%-8s %9d %7d %8d %9.1f %9.3f %9.3f %9.3f %9.3f%n", name, latencies.getTotalCount(), errors, skipped,
+				summary.get("throughput"), summary.get("p50"), summary.get("p99"), summary.get("p99.9"), summary.get("max"));
+		return summary;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	//latencies in microseconds, auto-resizing so a request stuck until its timeout is still recorded
+	private static final class OperationStats {
+
+		private final Histogram latencies = new ConcurrentHistogram(3);
+
+		//non-2xx answers, and -1 for timeouts and connection failures
+		private final LongAdder errors = new LongAdder();
+
+		private final LongAdder skipped = new LongAdder();
+
+		private void record(long latencyNanos, int status) {
+			latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+			if(status < 200 || status >= 300) {
+				errors.increment();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+package com.shah.employees.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.convert.DurationStyle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * @author Shahrukh
+ *
+ * Time to first successful request, for the jar built by the startup profile (mvn -Pstartup package
+ * in the parent directory). Every run starts a fresh JVM on a free port and polls a one-row page until
+ * it answers 200. The clock starts just before the process is launched, so JVM boot, class loading,
+ * context refresh and the first request are all included.
+ *
+ * The modes differ only in JVM flags on the same jar: default, aot (-Dspring.aot.enabled=true), cds
+ * (-XX:SharedArchiveFile) and aot-cds (both). Options are --startup.runs, --startup.modes,
+ * --startup.timeout, --startup.jar, --startup.archive and --startup.result; anything else is handed to
+ * the application.
+ */
+public final class StartupBenchmark {
+
+	private static final String OPTION_PREFIX = "--startup.";
+
+	private static final String DEFAULT_MODES = "default,aot,cds,aot-cds";
+
+	private static final long POLL_INTERVAL_MILLIS = 10;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(1))
+			.build();
+
+	private final Path jar;
+
+	private final Path archive;
+
+	private final Duration timeout;
+
+	private final List<String> applicationArgs;
+
+	public StartupBenchmark(Path jar, Path archive, Duration timeout, List<String> applicationArgs) {
+		this.jar = jar;
+		this.archive = archive;
+		this.timeout = timeout;
+		this.applicationArgs = applicationArgs;
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		Map<String, String> options = new HashMap<>();
+		List<String> applicationArgs = new ArrayList<>();
+		for(String arg : args) {
+			int separator = arg.indexOf('=');
+			if(arg.startsWith(OPTION_PREFIX) && separator > 0) {
+				options.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+			} else {
+				applicationArgs.add(arg);
+			}
+		}
+		int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+		List<String> modes = List.of(options.getOrDefault("modes", DEFAULT_MODES).split(","));
+		Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "120s"));
+		Path jar = Path.of(options.getOrDefault("jar", "../target/employees-service-0.0.1-SNAPSHOT.jar"));
+		Path archive = Path.of(options.getOrDefault("archive", "../target/employees-service.jsa"));
+		Path result = Path.of(options.getOrDefault("result", "target/startup-result.json"));
+		if(!Files.isRegularFile(jar) || !Files.isRegularFile(archive)) {
+			throw new IllegalStateException("Missing " + jar + " or " + archive + ", build them with mvn -Pstartup package in the parent directory");
+		}
+
+		StartupBenchmark benchmark = new StartupBenchmark(jar, archive, timeout, applicationArgs);
+		Files.createDirectories(result.toAbsolutePath().getParent());
+		Map<String, List<Double>> timings = new LinkedHashMap<>();
+		modes.forEach(mode -> timings.put(mode.trim(), new ArrayList<>()));
+		//modes take turns, so a noisy neighbour or a warming page cache does not favour one of them
+		for(int run = 1; run <= runs; run++) {
+			for(Map.Entry<String, List<Double>> mode : timings.entrySet()) {
+				double millis = benchmark.timeToFirstRequest(mode.getKey(), result.resolveSibling("startup-" + mode.getKey() + ".log"));
+				mode.getValue().add(millis);
+				System.out.printf("run %d %-8s %9.0f ms%n", run, mode.getKey(), millis);
+			}
+		}
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("runs", runs);
+		report.put("jar", jar.toAbsolutePath().normalize().toString());
+		report.put("javaVersion", Runtime.version().toString());
+		report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+		report.put("applicationArgs", applicationArgs);
+		report.put("modes", report(timings, System.out));
+		new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(result.toFile(), report);
+		System.out.println("Results written to " + result.toAbsolutePath());
+	}
+
+	//milliseconds from launching the JVM to the first 200, the process is stopped again before returning
+	double timeToFirstRequest(String mode, Path log) throws IOException, InterruptedException {
+
+		int port = freePort();
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		command.addAll(jvmFlags(mode));
+		command.add("-jar");
+		command.add(jar.toString());
+		command.add("--server.port=" + port);
+		//polling from one address would run into the list budget and count the wait as startup time
+		command.add("--employees.rate-limit.enabled=false");
+		command.addAll(applicationArgs);
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(log.toFile())
+				.start();
+		try {
+			long deadline = start + timeout.toNanos();
+			while(System.nanoTime() < deadline) {
+				if(!process.isAlive()) {
+					throw new IllegalStateException("Application exited with " + process.exitValue() + " in mode " + mode + ", see " + log);
+				}
+				if(succeeds(port)) {
+					return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / 1000.0;
+				}
+				Thread.sleep(POLL_INTERVAL_MILLIS);
+			}
+			throw new IllegalStateException("No successful request within " + timeout + " in mode " + mode + ", see " + log);
+		} finally {
+			process.destroy();
+			if(!process.waitFor(30, TimeUnit.SECONDS)) {
+				process.destroyForcibly().waitFor();
+			}
+		}
+	}
+
+	private List<String> jvmFlags(String mode) {
+
+		return switch(mode) {
+			case "default" -> List.of();
+			case "aot" -> List.of("-Dspring.aot.enabled=true");
+			case "cds" -> List.of("-XX:SharedArchiveFile=" + archive);
+			case "aot-cds" -> List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true");
+			default -> throw new IllegalArgumentException("Unknown startup mode " + mode + ", expected one of " + DEFAULT_MODES);
+		};
+	}
+
+	private boolean succeeds(int port) throws InterruptedException {
+
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employees?size=1"))
+				.timeout(Duration.ofSeconds(5))
+				.GET()
+				.build();
+		try {
+			return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try(ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	//prints min, median and max per mode and returns the same numbers, in milliseconds
+	static Map<String, Object> report(Map<String, List<Double>> timings, PrintStream out) {
+
+		Map<String, Object> modes = new LinkedHashMap<>();
+		out.printf("%-8s %5s %9s %9s %9s%n", "mode", "runs", "min ms", "median ms", "max ms");
+		timings.forEach((mode, millis) -> {
+			List<Double> sorted = millis.stream().sorted().toList();
+			int size = sorted.size();
+			double median = size % 2 == 1 ? sorted.get(size / 2) : (sorted.get(size / 2 - 1) + sorted.get(size / 2)) / 2;
+			Map<String, Object> summary = new LinkedHashMap<>();
+			summary.put("timings", millis);
+			summary.put("min", sorted.get(0));
+			summary.put("median", median);
+			summary.put("max", sorted.get(size - 1));
+			out.printf("%-8s %5d %9.0f %9.0f %9.0f%n", mode, size, sorted.get(0), median, sorted.get(size - 1));
+			modes.put(mode, summary);
+		});
+		return modes;
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.shah.employees.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import com.shah.employees.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * @author Shahrukh
+ *
+ * Caps how many calls into {@link com.shah.employees.service.EmployeeServiceImpl} (and so how many
+ * transactions holding a pooled connection) run at once. Sized to the connection pool, callers
+ * beyond it wait in a fair queue for at most max-wait and are then rejected with a 503, instead of
+ * piling up inside Hikari's checkout. Ordered just outside the transaction interceptor so a permit
+ * is held before a connection is taken and released after it is returned.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty(name = "employees.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseBulkhead {
+
+	private final Semaphore permits;
+
+	private final Duration maxWait;
+
+	private final Timer waitTimer;
+
+	private final Counter rejected;
+
+	public DatabaseBulkhead(@Value("${employees.bulkhead.max-concurrent-calls:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrentCalls,
+							@Value("${employees.bulkhead.max-wait:500ms}") Duration maxWait,
+							MeterRegistry meterRegistry) {
+		this.permits = new Semaphore(maxConcurrentCalls, true);
+		this.maxWait = maxWait;
+		this.waitTimer = Timer.builder("employees.bulkhead.wait")
+				.description("Time spent waiting for a database bulkhead permit")
+				.register(meterRegistry);
+		this.rejected = Counter.builder("employees.bulkhead.rejected")
+				.description("Calls rejected because no permit was free within max-wait")
+				.register(meterRegistry);
+		Gauge.builder("employees.bulkhead.available", permits, Semaphore::availablePermits)
+				.description("Free database bulkhead permits")
+				.register(meterRegistry);
+		Gauge.builder("employees.bulkhead.queued", permits, Semaphore::getQueueLength)
+				.description("Callers waiting for a database bulkhead permit")
+				.register(meterRegistry);
+	}
+
+	@Around("execution(public * com.shah.employees.service.EmployeeServiceImpl.*(..))")
+	public Object execute(ProceedingJoinPoint joinPoint) throws Throwable {
+
+		long start = System.nanoTime();
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BulkheadFullException("Interrupted while waiting for a database permit", e);
+		} finally {
+			waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+		if(!acquired) {
+			rejected.increment();
+			throw new BulkheadFullException("Database is saturated, no permit within " + maxWait.toMillis() + " ms");
+		}
+		try {
+			return joinPoint.proceed();
+		} finally {
+			permits.release();
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.shah.employees.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeeChangeView;
+import com.shah.employees.service.EmployeeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Server-Sent Events version of the change feed. One thread polls the change log every
+ * poll-interval for all subscribers and pushes each change as an event whose id is its sequence, so
+ * a reconnecting EventSource resumes from Last-Event-ID. Polling the shared log instead of listening
+ * to this instance's writes also delivers changes made through other instances.
+ */
+@Component
+public class EmployeeChangeStream implements Closeable {
+
+	private static final Logger log = LoggerFactory.getLogger(EmployeeChangeStream.class);
+
+	private final EmployeeService employeeService;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+			Thread.ofPlatform().name("employees-changes").daemon().factory());
+
+	public EmployeeChangeStream(EmployeeService employeeService,
+								@Value("${employees.changes.poll-interval:1s}") Duration pollInterval,
+								MeterRegistry meterRegistry) {
+		this.employeeService = employeeService;
+		Gauge.builder("employees.changes.subscribers", subscribers, Set::size)
+				.description("Open change feed streams")
+				.register(meterRegistry);
+		poller.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	//the emitter times out after spring.mvc.async.request-timeout, clients reconnect with Last-Event-ID
+	SseEmitter subscribe(long since) {
+
+		SseEmitter emitter = new SseEmitter();
+		Subscriber subscriber = new Subscriber(emitter, since);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+		subscribers.add(subscriber);
+		return emitter;
+	}
+
+	private void poll() {
+
+		try {
+			//subscribers that caught up share a position, so they share one query too
+			Map<Long, List<Subscriber>> byPosition = subscribers.stream().collect(Collectors.groupingBy(Subscriber::position));
+			byPosition.forEach(this::catchUp);
+		} catch (RuntimeException e) {
+			//a failed poll must not cancel the schedule, the next one starts from the same positions
+			log.warn("Polling the employee change log failed", e);
+		}
+	}
+
+	private void catchUp(long since, List<Subscriber> group) {
+
+		long position = since;
+		EmployeeChangePage page;
+		do {
+			page = employeeService.getChanges(position, Integer.MAX_VALUE);
+			for(Subscriber subscriber : group) {
+				subscriber.send(page.getChanges());
+			}
+			position = page.getLastSequence();
+		} while(page.isMore());
+	}
+
+	@Override
+	public void close() {
+
+		poller.shutdownNow();
+		subscribers.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+
+		private volatile long position;
+
+		private Subscriber(SseEmitter emitter, long position) {
+			this.emitter = emitter;
+			this.position = position;
+		}
+
+		private long position() {
+			return position;
+		}
+
+		private void send(List<EmployeeChangeView> changes) {
+
+			try {
+				for(EmployeeChangeView change : changes) {
+					emitter.send(SseEmitter.event()
+							.id(String.valueOf(change.sequence()))
+							.data(change, MediaType.APPLICATION_JSON));
+					position = change.sequence();
+				}
+			} catch (IOException | IllegalStateException e) {
+				//the client went away, the emitter's error callback removes it
+				subscribers.remove(this);
+				emitter.completeWithError(e);
+			}
+		}
+	}
+
+}
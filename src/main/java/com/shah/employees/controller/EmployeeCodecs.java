@@ -0,0 +1,83 @@
+package com.shah.employees.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationStrategy;
+import org.springframework.web.accept.HeaderContentNegotiationStrategy;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.shah.employees.exception.BadRequestException;
+
+/**
+ * @author Shahrukh
+ *
+ * The encodings employee payloads can be exchanged in: JSON by default, CBOR and Smile for callers
+ * that ask for them. All three mappers are copies of the application ObjectMapper, so every format
+ * carries the same fields and settings. The message converters registered here cover the endpoints
+ * Spring MVC encodes; the controller uses {@link #mapperFor(MediaType)} for the ones it encodes itself.
+ */
+@Configuration(proxyBeanMethods = false)
+public class EmployeeCodecs {
+
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+	public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+	//in order of preference, the first one an Accept header allows is used
+	private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+	private final ContentNegotiationStrategy acceptHeader = new HeaderContentNegotiationStrategy();
+
+	public EmployeeCodecs(ObjectMapper objectMapper) {
+		mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+		mappers.put(MediaType.APPLICATION_CBOR, objectMapper.copyWith(new CBORFactory()));
+		mappers.put(APPLICATION_SMILE, objectMapper.copyWith(new SmileFactory()));
+	}
+
+	//replace the converters Spring MVC would otherwise build from a default mapper
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+		return new MappingJackson2CborHttpMessageConverter(mapperFor(MediaType.APPLICATION_CBOR));
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+		return new MappingJackson2SmileHttpMessageConverter(mapperFor(APPLICATION_SMILE));
+	}
+
+	//the most preferred encoding the Accept header allows, */* or no Accept header at all selects JSON
+	public MediaType select(NativeWebRequest request) throws HttpMediaTypeNotAcceptableException {
+
+		for(MediaType accepted : acceptHeader.resolveMediaTypes(request)) {
+			for(MediaType supported : mappers.keySet()) {
+				if(accepted.isCompatibleWith(supported)) {
+					return supported;
+				}
+			}
+		}
+		return MediaType.APPLICATION_JSON;
+	}
+
+	//NDJSON and the +json types read with the JSON mapper
+	public ObjectMapper mapperFor(MediaType mediaType) {
+
+		for(Map.Entry<MediaType, ObjectMapper> entry : mappers.entrySet()) {
+			if(entry.getKey().isCompatibleWith(mediaType)) {
+				return entry.getValue();
+			}
+		}
+		if(MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType) || "json".equals(mediaType.getSubtypeSuffix())) {
+			return mappers.get(MediaType.APPLICATION_JSON);
+		}
+		throw new BadRequestException("Unsupported employee encoding: " + mediaType);
+	}
+
+}
@@ -1,17 +1,50 @@
 package com.shah.employees.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shah.employees.controller.EmployeeResponseCache.EncodedResponse;
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.exception.ConcurrentUpdateException;
+import com.shah.employees.exception.PreconditionFailedException;
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.search.EmployeeSearchIndex;
+import com.shah.employees.service.EmployeeBatchImporter;
+import com.shah.employees.service.EmployeeCursor;
 import com.shah.employees.service.EmployeeService;
 
 /**
@@ -22,52 +55,293 @@ import com.shah.employees.service.EmployeeService;
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+	//upper bound on ids or emails accepted by one bulk request
+	private static final int MAX_BULK_SIZE = 1000;
+	
+	//rows written between explicit flushes of the export stream
+	private static final int EXPORT_FLUSH_INTERVAL = 100;
+	
 	private EmployeeService employeeService;
 	
-	public EmployeeController(EmployeeService employeeService) {
+	private EmployeeBatchImporter employeeBatchImporter;
+	
+	private EmployeeResponseCache employeeResponseCache;
+	
+	private EmployeeSearchIndex employeeSearchIndex;
+	
+	private ObjectMapper objectMapper;
+	
+	private EmployeeCodecs employeeCodecs;
+	
+	private EmployeeChangeStream employeeChangeStream;
+	
+	public EmployeeController(EmployeeService employeeService, EmployeeBatchImporter employeeBatchImporter,
+							  EmployeeResponseCache employeeResponseCache, EmployeeSearchIndex employeeSearchIndex,
+							  ObjectMapper objectMapper, EmployeeCodecs employeeCodecs, EmployeeChangeStream employeeChangeStream) {
 		
 		this.employeeService = employeeService;
+		this.employeeBatchImporter = employeeBatchImporter;
+		this.employeeResponseCache = employeeResponseCache;
+		this.employeeSearchIndex = employeeSearchIndex;
+		this.objectMapper = objectMapper;
+		this.employeeCodecs = employeeCodecs;
+		this.employeeChangeStream = employeeChangeStream;
 	}
 	
 	@PostMapping
 	@ResponseStatus(code = HttpStatus.CREATED)
-	public Employee createEmployee(Employee employee) {
+	public Employee createEmployee(@RequestBody Employee employee) {
 		
 		return employeeService.saveEmployee(employee);
 	}
 	
-	@GetMapping 
-	public List<Employee> getAllEmployees(){
-		return employeeService.getAllEmployees();
+	//bulk create from a JSON array or NDJSON body, or a CBOR or Smile array or sequence of employees,
+	//read incrementally and inserted in batched chunks
+	@PostMapping(value = "batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+			MediaType.APPLICATION_CBOR_VALUE, EmployeeCodecs.APPLICATION_SMILE_VALUE})
+	public EmployeeBatchResult createEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+											   InputStream body) throws IOException {
+		
+		ObjectMapper mapper = employeeCodecs.mapperFor(contentType);
+		try(MappingIterator<Employee> employees = mapper.readerFor(Employee.class).readValues(body)) {
+			return employeeBatchImporter.importEmployees(employees);
+		} catch (JsonProcessingException e) {
+			throw new BadRequestException("Malformed batch body: " + e.getOriginalMessage(), e);
+		}
+	}
+	
+	//keyset paginated listing, e.g. ?size=50&sort=id,desc then ?cursor=<nextCursor> for the following page
+	//the cursor keeps the order the listing started with, a sort sent along with it must name the same one
+	//answers If-None-Match from the cached page when nothing was written since it was encoded
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, EmployeeCodecs.APPLICATION_SMILE_VALUE})
+	public ResponseEntity<byte[]> getAllEmployees(@RequestParam(value = "cursor", required = false) String cursor,
+												  @RequestParam(value = "size", defaultValue = "20") int size,
+												  @RequestParam(value = "sort", required = false) String sort,
+												  NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+		Sort.Direction direction = listDirection(cursor, sort);
+		MediaType mediaType = employeeCodecs.select(webRequest);
+		EncodedResponse page = employeeResponseCache.getPage(cursor, size, direction, mediaType,
+				() -> encode(employeeService.getEmployees(cursor, size, direction), mediaType));
+		if(webRequest.checkNotModified(page.etag())) {
+			return null; //304 and ETag are already set on the response
+		}
+		return ResponseEntity.ok().contentType(mediaType).varyBy(HttpHeaders.ACCEPT).eTag(page.etag()).body(page.body());
 	}
 	
-	@GetMapping(value = "{id}")
-	public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
+	//multi-get in one query, e.g. ?ids=1,2,3; unknown ids are left out of the result
+	@GetMapping(params = "ids")
+	public List<EmployeeView> getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds){
 		
-		return employeeService.getEmployeeById(employeeId)
-				.map(ResponseEntity::ok)
-				.orElseGet(() -> ResponseEntity.notFound().build());
+		return employeeService.getEmployeesByIds(checkBulkSize(employeeIds));
+	}
+	
+	//multi-get by email, sent as an array body so the addresses stay out of URLs and access logs
+	@PostMapping(value = "by-email", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			EmployeeCodecs.APPLICATION_SMILE_VALUE})
+	public List<EmployeeView> getEmployeesByEmails(@RequestBody List<String> emails){
+		
+		return employeeService.getEmployeesByEmails(checkBulkSize(emails));
+	}
+	
+	//typeahead, case-insensitive prefix match on first name, last name or email, e.g. ?q=gan&limit=10
+	//served from the in-memory search index, follow nextCursor for more matches
+	@GetMapping(value = "search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, EmployeeCodecs.APPLICATION_SMILE_VALUE})
+	public EmployeePage searchEmployees(@RequestParam("q") String query,
+										@RequestParam(value = "cursor", required = false) String cursor,
+										@RequestParam(value = "limit", defaultValue = "10") int limit){
+		
+		return employeeSearchIndex.search(query, cursor, limit);
+	}
+	
+	//full-table export as newline delimited JSON, streamed from a database cursor one row at a time
+	@GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportEmployees() {
+		
+		ObjectWriter writer = objectMapper.writerFor(Employee.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = outputStream -> {
+			try(JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.setRootValueSeparator(null);
+				long[] written = {0};
+				employeeService.exportEmployees(employee -> {
+					try {
+						writer.writeValue(generator, employee);
+						generator.writeRaw('\n');
+						if(++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+							generator.flush();
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
+	//incremental sync: what was created, updated or deleted after the since sequence of the previous call
+	@GetMapping(value = "changes", produces = MediaType.APPLICATION_JSON_VALUE)
+	public EmployeeChangePage getChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+										 @RequestParam(value = "limit", defaultValue = "200") int limit){
+		
+		return employeeService.getChanges(since, limit);
+	}
+	
+	//the same feed pushed as Server-Sent Events, an EventSource reconnecting sends Last-Event-ID instead of since;
+	//one change is read first, so a feed that is not available answers 400 instead of a stream that never sends
+	@GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+									@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId){
+		
+		long position = lastEventId != null ? lastEventId : since;
+		employeeService.getChanges(position, 1);
+		return employeeChangeStream.subscribe(position);
+	}
+	
+	//served from already encoded bytes when the employee was read before and not written since,
+	//a matching If-None-Match is answered from the cached ETag or a version-only query
+	@GetMapping(value = "{id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, EmployeeCodecs.APPLICATION_SMILE_VALUE})
+	public ResponseEntity<byte[]> getEmployeeById(@PathVariable("id") long employeeId,
+												  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+												  NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+		
+		MediaType mediaType = employeeCodecs.select(webRequest);
+		if(ifNoneMatch != null) {
+			EncodedResponse cached = employeeResponseCache.peekEmployee(employeeId, mediaType);
+			String currentEtag = cached != null ? cached.etag()
+					: employeeService.getEmployeeVersion(employeeId).map(EmployeeController::versionEtag).orElse(null);
+			if(currentEtag != null && webRequest.checkNotModified(currentEtag)) {
+				return null; //304 and ETag are already set on the response
+			}
+		}
+		EncodedResponse response = employeeResponseCache.getEmployee(employeeId, mediaType,
+				() -> employeeService.getEmployeeById(employeeId)
+						.map(employee -> new EncodedResponse(encode(employee, mediaType), versionEtag(employee.getVersion())))
+						.orElse(null));
+		if(response == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok().contentType(mediaType).varyBy(HttpHeaders.ACCEPT).eTag(response.etag()).body(response.body());
 	}
 	
+	//an optional If-Match makes the update conditional on the version the client read;
+	//a write that lands between the read and the UPDATE below answers 409, or 412 when If-Match was sent
 	@PutMapping("{id}")
 	public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, 
+												   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
 												   @RequestBody Employee employee){
 		
+		Long expectedVersion = ifMatch == null || ifMatch.trim().equals("*") ? null : parseVersionEtag(ifMatch);
 		return employeeService.getEmployeeById(employeeId)
 				.map(savedEmployee -> {
+					if(expectedVersion != null && expectedVersion != savedEmployee.getVersion()) {
+						throw new PreconditionFailedException("Employee " + employeeId + " is at version " + savedEmployee.getVersion()
+								+ ", not " + expectedVersion);
+					}
 					savedEmployee.setFirstName(employee.getFirstName());
 					savedEmployee.setLastName(employee.getLastName());
 					savedEmployee.setEmail(employee.getEmail());
 					
-					Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-					return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
+					Employee updatedEmployee;
+					try {
+						updatedEmployee = employeeService.updateEmployee(savedEmployee);
+					} catch (OptimisticLockingFailureException e) {
+						String message = "Employee " + employeeId + " was changed by another request, read it again and retry";
+						throw ifMatch != null ? new PreconditionFailedException(message, e) : new ConcurrentUpdateException(message, e);
+					}
+					return ResponseEntity.ok().eTag(versionEtag(updatedEmployee.getVersion())).body(updatedEmployee);
 				})
 				.orElseGet(() -> ResponseEntity.notFound().build());
 	}
 	
+	//partial update in one conditional UPDATE; If-Match carries the ETag from a previous GET, or * to skip the check
+	@PatchMapping(value = "{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId,
+											  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+											  @RequestBody EmployeePatch patch){
+		
+		if(ifMatch == null) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+		}
+		Long expectedVersion = ifMatch.trim().equals("*") ? null : parseVersionEtag(ifMatch);
+		long version = employeeService.patchEmployee(employeeId, expectedVersion, patch);
+		return ResponseEntity.noContent().eTag(versionEtag(version)).build();
+	}
+	
+	@DeleteMapping("{id}")
 	public ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
 		
 		employeeService.deleteEmployee(employeeId);
 		return new ResponseEntity<>("Employee deleted successfully!", HttpStatus.OK);
 	}
+	
+	//bulk delete in a single DELETE ... WHERE id IN (...), e.g. ?ids=1,2,3
+	@DeleteMapping(params = "ids")
+	public ResponseEntity<String> deleteEmployees(@RequestParam("ids") List<Long> employeeIds){
+		
+		int deleted = employeeService.deleteEmployees(checkBulkSize(employeeIds));
+		return new ResponseEntity<>(deleted + " employees deleted successfully!", HttpStatus.OK);
+	}
+	
+	private static <T> List<T> checkBulkSize(List<T> values) {
+		
+		if(values.size() > MAX_BULK_SIZE) {
+			throw new BadRequestException("At most " + MAX_BULK_SIZE + " employees can be requested at once");
+		}
+		return values;
+	}
+	
+	//strong, so the tag a GET hands out can be sent back in If-Match
+	private static String versionEtag(long version) {
+		return "\"" + version + "\"";
+	}
+	
+	//If-Match compares strongly (RFC 9110), a weak tag never matches and fails the precondition
+	private static long parseVersionEtag(String etag) {
+		
+		String value = etag.trim();
+		if(value.startsWith("W/")) {
+			throw new PreconditionFailedException("If-Match needs a strong ETag, a weak one never matches: " + etag);
+		}
+		try {
+			return Long.parseLong(value.replace("\"", ""));
+		} catch (NumberFormatException e) {
+			throw new PreconditionFailedException("If-Match does not match any version of this employee: " + etag);
+		}
+	}
+	
+	private byte[] encode(Object value, MediaType mediaType) {
+		
+		try {
+			return employeeCodecs.mapperFor(mediaType).writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	//the cursor's own order, or the sort parameter's when listing starts
+	private static Sort.Direction listDirection(String cursor, String sort) {
+		
+		Sort.Direction direction = sort == null ? Sort.Direction.ASC : parseSortDirection(sort);
+		if(cursor == null || cursor.isBlank()) {
+			return direction;
+		}
+		Sort.Direction cursorDirection = EmployeeCursor.decode(cursor).direction();
+		if(sort != null && direction != cursorDirection) {
+			throw new BadRequestException("Sort " + sort + " conflicts with the cursor, which continues in "
+					+ cursorDirection.name().toLowerCase() + " order");
+		}
+		return cursorDirection;
+	}
+	
+	private static Sort.Direction parseSortDirection(String sort) {
+		
+		String[] parts = sort.split(",");
+		if(!parts[0].trim().equals("id") || parts.length > 2) {
+			throw new BadRequestException("Unsupported sort, only id,asc or id,desc is allowed: " + sort);
+		}
+		return parts.length == 1 ? Sort.Direction.ASC : Sort.Direction.fromOptionalString(parts[1].trim())
+				.orElseThrow(() -> new BadRequestException("Unsupported sort direction: " + sort));
+	}
 }
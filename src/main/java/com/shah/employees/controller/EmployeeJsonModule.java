@@ -0,0 +1,165 @@
+package com.shah.employees.controller;
+
+import java.io.IOException;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeView;
+
+/**
+ * @author Shahrukh
+ *
+ * Hand-written streaming serializers and deserializer for {@link Employee} and {@link EmployeeView},
+ * the payload of nearly every request. They replace the introspected bean serializers, which go
+ * through property writers and getter calls for each field. Field names are written from
+ * {@link SerializedString}s that keep their quoted bytes once encoded. The output matches what the
+ * bean serializers write. Spring Boot registers every Module bean with the application
+ * ObjectMapper, so the message converters, the controller's own encoding and the CBOR and Smile
+ * mappers in {@link EmployeeCodecs} all use it.
+ */
+@Component
+public class EmployeeJsonModule extends SimpleModule {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final SerializedString ID = new SerializedString("id");
+	private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+	private static final SerializedString LAST_NAME = new SerializedString("lastName");
+	private static final SerializedString EMAIL = new SerializedString("email");
+	private static final SerializedString VERSION = new SerializedString("version");
+
+	public EmployeeJsonModule() {
+		super(EmployeeJsonModule.class.getSimpleName());
+		addSerializer(Employee.class, new EmployeeSerializer());
+		addSerializer(EmployeeView.class, new EmployeeViewSerializer());
+		addDeserializer(Employee.class, new EmployeeDeserializer());
+		addDeserializer(EmployeeView.class, new EmployeeViewDeserializer());
+	}
+
+	//same field order as the entity declares, which is the order the bean serializer used
+	private static void writeEmployee(JsonGenerator generator, long id, String firstName, String lastName,
+									  String email, long version) throws IOException {
+
+		generator.writeStartObject();
+		generator.writeFieldName(ID);
+		generator.writeNumber(id);
+		generator.writeFieldName(FIRST_NAME);
+		generator.writeString(firstName);
+		generator.writeFieldName(LAST_NAME);
+		generator.writeString(lastName);
+		generator.writeFieldName(EMAIL);
+		generator.writeString(email);
+		generator.writeFieldName(VERSION);
+		generator.writeNumber(version);
+		generator.writeEndObject();
+	}
+
+	//fields in any order, unknown fields and type coercions are left to the mapper's configuration
+	private static Employee readEmployee(JsonParser parser, DeserializationContext context, StdDeserializer<?> deserializer) throws IOException {
+
+		JsonToken token = parser.currentToken();
+		if(token == JsonToken.START_OBJECT) {
+			token = parser.nextToken();
+		} else if(token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+			return (Employee) context.handleUnexpectedToken(Employee.class, parser);
+		}
+		Employee employee = new Employee();
+		for(; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+			String name = parser.currentName();
+			parser.nextToken();
+			switch(name) {
+				case "id" -> employee.setId(readLong(parser, context));
+				case "firstName" -> employee.setFirstName(readString(parser, context));
+				case "lastName" -> employee.setLastName(readString(parser, context));
+				case "email" -> employee.setEmail(readString(parser, context));
+				case "version" -> employee.setVersion(readLong(parser, context));
+				default -> context.handleUnknownProperty(parser, deserializer, deserializer.handledType(), name);
+			}
+		}
+		return employee;
+	}
+
+	private static long readLong(JsonParser parser, DeserializationContext context) throws IOException {
+
+		return switch(parser.currentToken()) {
+			case VALUE_NUMBER_INT -> parser.getLongValue();
+			case VALUE_NULL -> 0L;
+			default -> context.readValue(parser, Long.TYPE);
+		};
+	}
+
+	private static String readString(JsonParser parser, DeserializationContext context) throws IOException {
+
+		return switch(parser.currentToken()) {
+			case VALUE_STRING -> parser.getText();
+			case VALUE_NULL -> null;
+			default -> context.readValue(parser, String.class);
+		};
+	}
+
+	private static class EmployeeSerializer extends StdSerializer<Employee> {
+
+		private static final long serialVersionUID = 1L;
+
+		EmployeeSerializer() {
+			super(Employee.class);
+		}
+
+		@Override
+		public void serialize(Employee employee, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			writeEmployee(generator, employee.getId(), employee.getFirstName(), employee.getLastName(),
+					employee.getEmail(), employee.getVersion());
+		}
+	}
+
+	private static class EmployeeViewSerializer extends StdSerializer<EmployeeView> {
+
+		private static final long serialVersionUID = 1L;
+
+		EmployeeViewSerializer() {
+			super(EmployeeView.class);
+		}
+
+		@Override
+		public void serialize(EmployeeView view, JsonGenerator generator, SerializerProvider provider) throws IOException {
+			writeEmployee(generator, view.id(), view.firstName(), view.lastName(), view.email(), view.version());
+		}
+	}
+
+	private static class EmployeeDeserializer extends StdDeserializer<Employee> {
+
+		private static final long serialVersionUID = 1L;
+
+		EmployeeDeserializer() {
+			super(Employee.class);
+		}
+
+		@Override
+		public Employee deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			return readEmployee(parser, context, this);
+		}
+	}
+
+	private static class EmployeeViewDeserializer extends StdDeserializer<EmployeeView> {
+
+		private static final long serialVersionUID = 1L;
+
+		EmployeeViewDeserializer() {
+			super(EmployeeView.class);
+		}
+
+		@Override
+		public EmployeeView deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+			return EmployeeView.of(readEmployee(parser, context, this));
+		}
+	}
+
+}
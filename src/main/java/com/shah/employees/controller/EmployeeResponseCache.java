@@ -0,0 +1,89 @@
+package com.shah.employees.controller;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shah.employees.service.EmployeeChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * @author Shahrukh
+ *
+ * Already encoded GET response bodies and their ETags, keyed by resource and content type, so hot
+ * reads skip serialization entirely and conditional reads can be answered from memory. Bounded by
+ * total bytes rather than entry count because list pages are far larger than single employees.
+ */
+@Component
+public class EmployeeResponseCache {
+
+	public static final String CACHE_NAME = "employeeResponses";
+
+	private final Cache<Object, EncodedResponse> responses;
+
+	//every content type ever cached, an employee change evicts its entry for each of them
+	private final Set<MediaType> mediaTypes = ConcurrentHashMap.newKeySet();
+
+	//part of every list page key, bumping it on any write retires all cached pages at once
+	private final AtomicLong generation = new AtomicLong();
+
+	public EmployeeResponseCache(@Value("${employees.response-cache.max-bytes:67108864}") long maxBytes,
+								 @Value("${employees.response-cache.ttl:10m}") Duration ttl,
+								 MeterRegistry meterRegistry) {
+		this.responses = Caffeine.newBuilder()
+				.maximumWeight(maxBytes)
+				.<Object, EncodedResponse>weigher((key, response) -> response.body().length)
+				.expireAfterWrite(ttl)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, responses, CACHE_NAME);
+	}
+
+	//returns null without caching anything when render finds no employee
+	public EncodedResponse getEmployee(long id, MediaType mediaType, Supplier<EncodedResponse> render) {
+
+		mediaTypes.add(mediaType);
+		return responses.get(new EmployeeKey(id, mediaType), key -> render.get());
+	}
+
+	//cached response only, never renders
+	public EncodedResponse peekEmployee(long id, MediaType mediaType) {
+
+		return responses.getIfPresent(new EmployeeKey(id, mediaType));
+	}
+
+	//pages carry no single version, their ETag is a digest of the encoded page taken once when it is cached
+	public EncodedResponse getPage(String cursor, int size, Sort.Direction direction, MediaType mediaType, Supplier<byte[]> render) {
+
+		return responses.get(new PageKey(generation.get(), cursor, size, direction, mediaType), key -> {
+			byte[] body = render.get();
+			return new EncodedResponse(body, "W/\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+		});
+	}
+
+	@EventListener
+	public void onEmployeeChanged(EmployeeChangedEvent event) {
+
+		generation.incrementAndGet();
+		mediaTypes.forEach(mediaType -> responses.invalidate(new EmployeeKey(event.employeeId(), mediaType)));
+	}
+
+	public record EncodedResponse(byte[] body, String etag) {
+	}
+
+	private record EmployeeKey(long id, MediaType mediaType) {
+	}
+
+	private record PageKey(long generation, String cursor, int size, Sort.Direction direction, MediaType mediaType) {
+	}
+}
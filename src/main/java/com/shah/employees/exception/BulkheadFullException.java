@@ -0,0 +1,21 @@
+package com.shah.employees.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * @author Shahrukh
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException{
+	
+	private static final long serialVersionUID = 1L;
+
+	public BulkheadFullException(String message) {
+		super(message);
+	}
+	
+	public BulkheadFullException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
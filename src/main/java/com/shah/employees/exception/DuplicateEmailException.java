@@ -0,0 +1,21 @@
+package com.shah.employees.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * @author Shahrukh
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class DuplicateEmailException extends RuntimeException{
+	
+	private static final long serialVersionUID = 1L;
+
+	public DuplicateEmailException(String message) {
+		super(message);
+	}
+	
+	public DuplicateEmailException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,21 @@
+package com.shah.employees.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * @author Shahrukh
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException{
+	
+	private static final long serialVersionUID = 1L;
+
+	public PreconditionFailedException(String message) {
+		super(message);
+	}
+	
+	public PreconditionFailedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -1,8 +1,12 @@
 package com.shah.employees.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
 /**
  * @author Shahrukh
  */
+@ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException{
 	
 	private static final long serialVersionUID = 1L;
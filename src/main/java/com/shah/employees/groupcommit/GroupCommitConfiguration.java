@@ -0,0 +1,56 @@
+package com.shah.employees.groupcommit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import com.shah.employees.repository.EmployeeChangeRepository;
+import com.shah.employees.repository.EmployeeRepository;
+import com.shah.employees.routing.RecentWriters;
+import com.shah.employees.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Group-commit write mode, on with employees.group-commit.enabled. The employeeServiceImpl bean is
+ * wrapped in a {@link GroupCommitEmployeeService}, so the caching service and controller stay
+ * unchanged. The writer uses the application's own repository and transaction manager, which is
+ * why this mode cannot be combined with sharding.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "employees.group-commit.enabled", havingValue = "true")
+public class GroupCommitConfiguration {
+
+	public static final String GROUP_COMMIT_SERVICE = "employeeServiceImpl";
+
+	//static, so wrapping the service bean does not pull this configuration in early
+	@Bean
+	public static BeanPostProcessor groupCommitEmployeeServiceWrapper(Environment environment,
+																	  ObjectProvider<EmployeeRepository> employeeRepository,
+																	  ObjectProvider<EmployeeChangeRepository> employeeChangeRepository,
+																	  ObjectProvider<PlatformTransactionManager> transactionManager,
+																	  ObjectProvider<RecentWriters> recentWriters,
+																	  ObjectProvider<MeterRegistry> meterRegistry) {
+		if(environment.containsProperty("employees.sharding.shard-urls")) {
+			throw new IllegalStateException("employees.group-commit.enabled cannot be combined with employees.sharding.shard-urls");
+		}
+		int capacity = environment.getProperty("employees.group-commit.queue-capacity", Integer.class, 1024);
+		int maxBatchSize = environment.getProperty("employees.group-commit.max-batch-size", Integer.class, 100);
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if(GROUP_COMMIT_SERVICE.equals(beanName) && bean instanceof EmployeeService employeeService) {
+					GroupCommitWriter writer = new GroupCommitWriter(capacity, maxBatchSize, employeeRepository.getObject(),
+							employeeChangeRepository.getObject(), transactionManager.getObject(), employeeService, meterRegistry.getObject());
+					return new GroupCommitEmployeeService(employeeService, writer, recentWriters.getIfAvailable());
+				}
+				return bean;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.shah.employees.groupcommit;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import org.springframework.data.domain.Sort;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.routing.RecentWriters;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ * Sends single creates and full updates through the {@link GroupCommitWriter} and blocks until
+ * the write is committed, so a caller still sees its own write confirmed before it returns.
+ * Everything else goes straight to the wrapped service: bulk imports are batched already, and
+ * patches and deletes are single statements without an entity to merge.
+ */
+public class GroupCommitEmployeeService implements EmployeeService, Closeable {
+
+	private final EmployeeService employeeService;
+
+	private final GroupCommitWriter writer;
+
+	//null without read replicas
+	private final RecentWriters recentWriters;
+
+	public GroupCommitEmployeeService(EmployeeService employeeService, GroupCommitWriter writer, RecentWriters recentWriters) {
+		this.employeeService = employeeService;
+		this.writer = writer;
+		this.recentWriters = recentWriters;
+	}
+
+	@Override
+	public Employee saveEmployee(Employee employee) {
+		return await(writer.submit(employee, true));
+	}
+
+	@Override
+	public EmployeeBatchResult saveEmployees(List<Employee> employees) {
+		return employeeService.saveEmployees(employees);
+	}
+
+	@Override
+	public List<Employee> getAllEmployees() {
+		return employeeService.getAllEmployees();
+	}
+
+	@Override
+	public EmployeePage getEmployees(String cursor, int size, Sort.Direction direction) {
+		return employeeService.getEmployees(cursor, size, direction);
+	}
+
+	@Override
+	public long exportEmployees(Consumer<Employee> consumer) {
+		return employeeService.exportEmployees(consumer);
+	}
+
+	@Override
+	public Optional<Employee> getEmployeeById(long id) {
+		return employeeService.getEmployeeById(id);
+	}
+
+	@Override
+	public Optional<Employee> getEmployeeByEmail(String email) {
+		return employeeService.getEmployeeByEmail(email);
+	}
+
+	@Override
+	public List<EmployeeView> getEmployeesByIds(Collection<Long> ids) {
+		return employeeService.getEmployeesByIds(ids);
+	}
+
+	@Override
+	public List<EmployeeView> getEmployeesByEmails(Collection<String> emails) {
+		return employeeService.getEmployeesByEmails(emails);
+	}
+
+	@Override
+	public Optional<Long> getEmployeeVersion(long id) {
+		return employeeService.getEmployeeVersion(id);
+	}
+
+	@Override
+	public Employee updateEmployee(Employee updatedEmployee) {
+		return await(writer.submit(updatedEmployee, false));
+	}
+
+	@Override
+	public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+		return employeeService.patchEmployee(id, expectedVersion, patch);
+	}
+
+	@Override
+	public void deleteEmployee(long id) {
+		employeeService.deleteEmployee(id);
+	}
+
+	@Override
+	public int deleteEmployees(Collection<Long> ids) {
+		return employeeService.deleteEmployees(ids);
+	}
+
+	@Override
+	public EmployeeChangePage getChanges(long since, int limit) {
+		return employeeService.getChanges(since, limit);
+	}
+
+	@Override
+	public void close() {
+		writer.close();
+	}
+
+	private Employee await(CompletableFuture<Employee> result) {
+
+		Employee employee;
+		try {
+			employee = result.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+		//the commit ran on the writer thread, which does not know the client behind this request
+		if(recentWriters != null) {
+			recentWriters.recordCommittedWrite();
+		}
+		return employee;
+	}
+
+}
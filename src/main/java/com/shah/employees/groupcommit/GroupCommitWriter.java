@@ -0,0 +1,216 @@
+package com.shah.employees.groupcommit;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.shah.employees.exception.BulkheadFullException;
+import com.shah.employees.exception.DuplicateEmailException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeChange;
+import com.shah.employees.repository.EmployeeChangeRepository;
+import com.shah.employees.repository.EmployeeRepository;
+import com.shah.employees.service.EmployeeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Single writer behind a bounded, lock-free queue of creates and updates. The writer takes
+ * everything queued, up to max-batch-size, and writes it in one transaction, so a burst of requests
+ * shares one commit and the inserts go out as JDBC batches. Each write's change log row is part of
+ * the same transaction. Creates whose email is already taken,
+ * in the table or earlier in the same batch, are answered with a 409 without failing the others.
+ *
+ * Any other failure rolls the whole batch back, and each of its writes is then retried alone
+ * through {@link EmployeeService}. Every caller therefore gets exactly the result or error its
+ * write would have got without group commit. A batch never holds two updates of one employee,
+ * the second waits for the next batch.
+ */
+public class GroupCommitWriter implements Closeable {
+
+	private final Queue<EmployeeWrite> queue = new ConcurrentLinkedQueue<>();
+
+	//the queue itself is unbounded, this counter is the bound
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final int capacity;
+
+	private final int maxBatchSize;
+
+	private final EmployeeRepository employeeRepository;
+
+	private final EmployeeChangeRepository employeeChangeRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final EmployeeService employeeService;
+
+	private final DistributionSummary batchSizes;
+
+	private final Counter retriedBatches;
+
+	private final Thread writer;
+
+	private volatile boolean running = true;
+
+	public GroupCommitWriter(int capacity, int maxBatchSize, EmployeeRepository employeeRepository,
+							 EmployeeChangeRepository employeeChangeRepository, PlatformTransactionManager transactionManager, EmployeeService employeeService,
+							 MeterRegistry meterRegistry) {
+		this.capacity = capacity;
+		this.maxBatchSize = maxBatchSize;
+		this.employeeRepository = employeeRepository;
+		this.employeeChangeRepository = employeeChangeRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.employeeService = employeeService;
+		this.batchSizes = DistributionSummary.builder("employees.group-commit.batch.size")
+				.description("Writes committed together in one transaction")
+				.register(meterRegistry);
+		this.retriedBatches = Counter.builder("employees.group-commit.batch.retried")
+				.description("Batches rolled back and retried one write at a time")
+				.register(meterRegistry);
+		Gauge.builder("employees.group-commit.queued", queued, AtomicInteger::get)
+				.description("Writes waiting for the group-commit writer")
+				.register(meterRegistry);
+		this.writer = Thread.ofPlatform().name("employees-group-commit").daemon().unstarted(this::drain);
+		writer.start();
+	}
+
+	//the future completes on the writer thread once the write is committed or has failed
+	CompletableFuture<Employee> submit(Employee employee, boolean create) {
+
+		if(!running) {
+			throw new IllegalStateException("Group-commit writer is closed");
+		}
+		int current;
+		do {
+			current = queued.get();
+			if(current >= capacity) {
+				throw new BulkheadFullException("Write queue is full, " + capacity + " writes are waiting for a commit");
+			}
+		} while(!queued.compareAndSet(current, current + 1));
+		EmployeeWrite write = new EmployeeWrite(employee, create, new CompletableFuture<>());
+		queue.offer(write);
+		LockSupport.unpark(writer);
+		return write.result();
+	}
+
+	private void drain() {
+
+		List<EmployeeWrite> batch = new ArrayList<>(maxBatchSize);
+		Set<Long> updatedIds = new HashSet<>();
+		while(running || !queue.isEmpty()) {
+			EmployeeWrite next;
+			while(batch.size() < maxBatchSize && (next = queue.peek()) != null
+					&& (next.create() || updatedIds.add(next.employee().getId()))) {
+				batch.add(queue.poll());
+			}
+			if(batch.isEmpty()) {
+				//a submit between the check and the park leaves a permit, so park returns at once
+				LockSupport.park(this);
+				continue;
+			}
+			queued.addAndGet(-batch.size());
+			try {
+				commit(batch);
+			} catch (Throwable e) {
+				//the writer must outlive any failure, its callers would wait forever otherwise
+				batch.forEach(write -> write.result().completeExceptionally(e));
+			}
+			batch.clear();
+			updatedIds.clear();
+		}
+	}
+
+	private void commit(List<EmployeeWrite> batch) {
+
+		batchSizes.record(batch.size());
+		List<Object> results;
+		try {
+			results = transactionTemplate.execute(status -> write(batch));
+		} catch (RuntimeException e) {
+			retriedBatches.increment();
+			batch.forEach(this::writeAlone);
+			return;
+		}
+		for(int index = 0; index < batch.size(); index++) {
+			CompletableFuture<Employee> result = batch.get(index).result();
+			if(results.get(index) instanceof RuntimeException error) {
+				result.completeExceptionally(error);
+			} else {
+				result.complete((Employee) results.get(index));
+			}
+		}
+	}
+
+	//an Employee or the exception for each write, in batch order
+	private List<Object> write(List<EmployeeWrite> batch) {
+
+		Set<String> emails = batch.stream()
+				.filter(EmployeeWrite::create)
+				.map(write -> write.employee().getEmail())
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet());
+		Set<String> takenEmails = new HashSet<>(emails.isEmpty() ? Set.of() : employeeRepository.findExistingEmails(emails));
+
+		List<Object> results = new ArrayList<>(batch.size());
+		for(EmployeeWrite write : batch) {
+			Employee employee = write.employee();
+			if(write.create()) {
+				if(employee.getEmail() != null && !takenEmails.add(employee.getEmail())) {
+					results.add(new DuplicateEmailException("Employee already exist with given email: " + employee.getEmail()));
+					continue;
+				}
+				//create only, as in EmployeeServiceImpl.saveEmployee
+				employee.setId(0L);
+				employee.setVersion(0L);
+			}
+			Employee saved = employeeRepository.save(employee);
+			employeeChangeRepository.save(EmployeeChange.of(write.create() ? EmployeeChange.Type.CREATED : EmployeeChange.Type.UPDATED, saved.getId()));
+			results.add(saved);
+		}
+		employeeRepository.flush();
+		return results;
+	}
+
+	private void writeAlone(EmployeeWrite write) {
+
+		try {
+			write.result().complete(write.create()
+					? employeeService.saveEmployee(write.employee())
+					: employeeService.updateEmployee(write.employee()));
+		} catch (RuntimeException e) {
+			write.result().completeExceptionally(e);
+		}
+	}
+
+	//stops taking writes, commits what is already queued and waits for the writer to finish
+	@Override
+	public void close() {
+
+		running = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private record EmployeeWrite(Employee employee, boolean create, CompletableFuture<Employee> result) {
+	}
+
+}
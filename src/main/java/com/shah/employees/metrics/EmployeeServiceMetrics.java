@@ -0,0 +1,73 @@
+package com.shah.employees.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import com.shah.employees.exception.DuplicateEmailException;
+import com.shah.employees.model.EmployeeBatchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * @author Shahrukh
+ *
+ * Times every call into the {@link com.shah.employees.service.EmployeeService} the controller uses,
+ * tagged by method and by the exception it ended with, and counts duplicate-email rejections for
+ * single writes and rows rejected from bulk imports. The database part of each call is visible
+ * separately in spring.data.repository.invocations and the hibernate.* and hikaricp.* meters.
+ */
+@Aspect
+@Component
+public class EmployeeServiceMetrics {
+
+	public static final String SERVICE_TIMER = "employees.service";
+	public static final String DUPLICATE_EMAIL_COUNTER = "employees.service.duplicate.email";
+	public static final String BATCH_ROWS_COUNTER = "employees.service.batch.rows";
+
+	private final MeterRegistry meterRegistry;
+
+	public EmployeeServiceMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Around("execution(public * com.shah.employees.service.CachingEmployeeService.*(..))")
+	public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+
+		String method = joinPoint.getSignature().getName();
+		Timer.Sample sample = Timer.start(meterRegistry);
+		String exception = "none";
+		try {
+			Object result = joinPoint.proceed();
+			if(result instanceof EmployeeBatchResult batch) {
+				countBatchRows(batch);
+			}
+			return result;
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			if(e instanceof DuplicateEmailException) {
+				Counter.builder(DUPLICATE_EMAIL_COUNTER)
+						.description("Writes rejected because the email belongs to another employee")
+						.tag("method", method)
+						.register(meterRegistry)
+						.increment();
+			}
+			throw e;
+		} finally {
+			sample.stop(Timer.builder(SERVICE_TIMER)
+					.description("Calls into the employee service")
+					.tag("method", method)
+					.tag("exception", exception)
+					.publishPercentileHistogram()
+					.register(meterRegistry));
+		}
+	}
+
+	private void countBatchRows(EmployeeBatchResult batch) {
+
+		Counter.builder(BATCH_ROWS_COUNTER).tag("outcome", "created").register(meterRegistry).increment(batch.getCreated());
+		Counter.builder(BATCH_ROWS_COUNTER).tag("outcome", "rejected").register(meterRegistry).increment(batch.getErrors().size());
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.shah.employees.metrics;
+
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+
+/**
+ * @author Shahrukh
+ *
+ * Adds the handling controller method to http.server.requests. The uri tag alone cannot tell apart
+ * endpoints that share a path and differ only by parameters, e.g. GET /api/employees with and
+ * without ids, so every controller method gets its own timer.
+ */
+@Component
+public class HandlerMethodObservationConvention extends DefaultServerRequestObservationConvention {
+
+	private static final KeyValue NO_HANDLER = KeyValue.of("handler", "none");
+
+	@Override
+	public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+
+		return super.getLowCardinalityKeyValues(context).and(handler(context));
+	}
+
+	private KeyValue handler(ServerRequestObservationContext context) {
+
+		if(context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod) {
+			return KeyValue.of("handler", handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+		}
+		return NO_HANDLER;
+	}
+
+}
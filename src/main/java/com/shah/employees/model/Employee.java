@@ -1,11 +1,15 @@
 package com.shah.employees.model;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import com.shah.employees.sharding.ShardedSequenceGenerator;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -20,13 +24,26 @@ import lombok.Setter;
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name = "employees")
+//name indexes turn the exact first + last name queries into index seeks instead of full scans
+@Table(name = "employees", indexes = {
+		@Index(name = Employee.EMAIL_INDEX, columnList = "email", unique = true),
+		@Index(name = "ix_employees_first_last", columnList = "first_name, last_name"),
+		@Index(name = "ix_employees_last_first", columnList = "last_name, first_name")
+})
 public class Employee {
 	
+	public static final String EMAIL_INDEX = "ux_employees_email";
+	
+	//pooled sequence instead of IDENTITY: ids are known before the INSERT, so Hibernate can batch inserts
+	//the generator also encodes the shard in the id when sharding is on
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "employees_seq")
+	@GenericGenerator(name = "employees_seq", type = ShardedSequenceGenerator.class, parameters = {
+			@Parameter(name = "sequence_name", value = "employees_seq"),
+			@Parameter(name = "increment_size", value = "50")
+	})
 	private long id;
 	
 	@Column(name = "first_name", nullable = false)
@@ -38,6 +55,11 @@ public class Employee {
 	@Column(name = "email", nullable = false)
 	private String email;
 	
+	//bumped by every update, exposed to clients as the ETag of the employee
+	@Version
+	@Column(name = "version", nullable = false)
+	private long version;
+	
 }
 
 /*
@@ -0,0 +1,33 @@
+package com.shah.employees.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @author Shahrukh
+ *
+ * Outcome of a bulk create: how many rows were received and inserted, plus one error per rejected row.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeBatchResult {
+
+	private int received;
+
+	private int created;
+
+	private List<RowError> errors;
+
+	@Getter
+	@AllArgsConstructor
+	public static class RowError {
+
+		//zero based position of the row in the request body
+		private int index;
+
+		private String email;
+
+		private String message;
+	}
+}
@@ -0,0 +1,61 @@
+package com.shah.employees.model;
+
+import java.time.Instant;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author Shahrukh
+ *
+ * One row of the change log, written in the same transaction as the employee write it records, so
+ * the log never shows a change that was rolled back and never misses one that committed. The
+ * sequence orders the changes and is the position clients resume the change feed from. It is only
+ * assigned once the change has committed, see {@link EmployeeChangeSequence}.
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "employee_changes", indexes = @Index(name = "ux_employee_changes_seq", columnList = "seq", unique = true))
+public class EmployeeChange {
+
+	public enum Type { CREATED, UPDATED, DELETED }
+
+	//pooled like the employee ids, the id only identifies the row and says nothing about the order
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_changes_id_seq")
+	@SequenceGenerator(name = "employee_changes_id_seq", sequenceName = "employee_changes_id_seq", allocationSize = 50)
+	private long id;
+
+	//null until the change is published by the change feed
+	@Setter
+	@Column(name = "seq")
+	private Long sequence;
+
+	@Column(name = "employee_id", nullable = false)
+	private long employeeId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "change_type", nullable = false, length = 7)
+	private Type type;
+
+	@Column(name = "changed_at", nullable = false)
+	private Instant changedAt;
+
+	public static EmployeeChange of(Type type, long employeeId) {
+		return new EmployeeChange(0L, null, employeeId, type, Instant.now());
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.shah.employees.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @author Shahrukh
+ *
+ * Changes after a client's last sequence. An employee changed several times appears once, at its
+ * latest change. lastSequence is the since of the next call, and more is true while a full page
+ * came back.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeChangePage {
+
+	private List<EmployeeChangeView> changes;
+
+	private long lastSequence;
+
+	private boolean more;
+
+}
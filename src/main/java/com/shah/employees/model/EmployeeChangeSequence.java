@@ -0,0 +1,39 @@
+package com.shah.employees.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author Shahrukh
+ *
+ * The last sequence handed to a change, in a single row. Sequences are assigned to committed changes
+ * only, by whoever holds this row's lock, so a change that commits late still gets a higher number
+ * than everything a client may already have read. A number taken when the change was written would
+ * let a slow transaction commit behind a position clients have moved past.
+ *
+ * The row is inserted by import.sql when Hibernate creates the schema; a schema managed by hand
+ * needs it inserted once, with id 1 and last_sequence 0 or the highest seq already in use.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "employee_change_sequence")
+public class EmployeeChangeSequence {
+
+	public static final int ID = 1;
+
+	@Id
+	private int id;
+
+	@Column(name = "last_sequence", nullable = false)
+	private long lastSequence;
+
+}
@@ -0,0 +1,10 @@
+package com.shah.employees.model;
+
+/**
+ * @author Shahrukh
+ *
+ * One entry of the change feed: the employee as it is now, or only its id for a tombstone.
+ */
+public record EmployeeChangeView(long sequence, EmployeeChange.Type type, long employeeId, EmployeeView employee) {
+
+}
@@ -0,0 +1,22 @@
+package com.shah.employees.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @author Shahrukh
+ *
+ * One page of a keyset (cursor) paginated listing. nextCursor is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeePage {
+
+	private List<EmployeeView> content;
+
+	private int size;
+
+	private String nextCursor;
+
+}
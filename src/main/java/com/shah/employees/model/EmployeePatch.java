@@ -0,0 +1,27 @@
+package com.shah.employees.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author Shahrukh
+ *
+ * Body of a PATCH: only the non-null fields are written, the rest keep their stored value.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeePatch {
+
+	private String firstName;
+
+	private String lastName;
+
+	private String email;
+
+}
@@ -0,0 +1,22 @@
+package com.shah.employees.model;
+
+/**
+ * @author Shahrukh
+ *
+ * Read model of an employee, filled straight from a JPQL constructor expression. Unlike a loaded
+ * {@link Employee} it is never attached to a persistence context, so reads keep no dirty-checking
+ * snapshot and leave nothing to flush. Serializes to the same JSON as the entity.
+ */
+public record EmployeeView(long id, String firstName, String lastName, String email, long version) {
+
+	public static EmployeeView of(Employee employee) {
+		return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(),
+				employee.getEmail(), employee.getVersion());
+	}
+
+	//detached entity for callers that go on to modify and save it
+	public Employee toEmployee() {
+		return new Employee(id, firstName, lastName, email, version);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.shah.employees.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * @author Shahrukh
+ *
+ * Per-client token buckets kept as GCRA (generic cell rate algorithm) state: one theoretical
+ * arrival time per client and budget instead of a token count and a refill timestamp. Admitting a
+ * request is a single compare-and-set on that time, so clients never wait on each other, and the
+ * Caffeine map around it is striped. Idle clients are evicted once their bucket would be full again.
+ */
+public class ClientRateLimiter {
+
+	private final Cache<String, AtomicLong> arrivals;
+
+	private final LongSupplier clock;
+
+	public ClientRateLimiter(Duration idleExpiry, int maximumClients) {
+		this(idleExpiry, maximumClients, System::nanoTime);
+	}
+
+	ClientRateLimiter(Duration idleExpiry, int maximumClients, LongSupplier clock) {
+		this.arrivals = Caffeine.newBuilder()
+				.expireAfterAccess(idleExpiry)
+				.maximumSize(maximumClients)
+				.build();
+		this.clock = clock;
+	}
+
+	//0 when the request is admitted, otherwise the nanoseconds until it would be
+	public long acquire(String client, RateLimit limit) {
+
+		AtomicLong arrival = arrivals.get(limit.budget() + ':' + client, key -> new AtomicLong(Long.MIN_VALUE));
+		long now = clock.getAsLong();
+		while(true) {
+			long current = arrival.get();
+			//a bucket that has been idle long enough is full, which is the same as starting from now
+			long next = (current == Long.MIN_VALUE || current - now < 0 ? now : current) + limit.intervalNanos();
+			long wait = next - now - limit.toleranceNanos();
+			if(wait > 0) {
+				return wait;
+			}
+			if(arrival.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+}
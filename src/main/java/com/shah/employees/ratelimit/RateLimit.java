@@ -0,0 +1,23 @@
+package com.shah.employees.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * @author Shahrukh
+ *
+ * A token bucket as a rate and a burst: a client may send burst requests at once, and after that
+ * one request every 1/perSecond. Held by {@link ClientRateLimiter} in its GCRA form, as the time
+ * between requests and the burst tolerance, both in nanoseconds.
+ */
+public record RateLimit(String budget, long intervalNanos, long toleranceNanos) {
+
+	public static RateLimit of(String budget, double perSecond, int burst) {
+
+		if(perSecond <= 0 || burst < 1) {
+			throw new IllegalArgumentException("Rate limit " + budget + " needs a positive rate and a burst of at least 1");
+		}
+		long intervalNanos = Math.round(Duration.ofSeconds(1).toNanos() / perSecond);
+		return new RateLimit(budget, intervalNanos, intervalNanos * burst);
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.shah.employees.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Per-client rate limits on the employee API, one budget each for reads, writes and listings,
+ * every one set as employees.rate-limit.{budget}.per-second and .burst. Only the keys listed in
+ * employees.rate-limit.api-keys name a client, any other request is limited by its remote address.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "employees.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfiguration {
+
+	@Bean
+	public ClientRateLimiter clientRateLimiter(@Value("${employees.rate-limit.idle-expiry:10m}") Duration idleExpiry,
+											   @Value("${employees.rate-limit.max-clients:100000}") int maximumClients) {
+		return new ClientRateLimiter(idleExpiry, maximumClients);
+	}
+
+	//ahead of the SQL budget and replica filters, a shed request costs a map lookup and nothing else
+	@Bean
+	public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(ClientRateLimiter clientRateLimiter, Environment environment,
+																   @Value("${employees.rate-limit.client-header:X-Api-Key}") String clientHeader,
+																   @Value("${employees.rate-limit.api-keys:}") Set<String> apiKeys,
+																   MeterRegistry meterRegistry) {
+		Map<String, RateLimit> limits = Map.of(
+				RateLimitFilter.READ, limit(RateLimitFilter.READ, environment, 100, 200),
+				RateLimitFilter.WRITE, limit(RateLimitFilter.WRITE, environment, 20, 40),
+				RateLimitFilter.LIST, limit(RateLimitFilter.LIST, environment, 5, 10));
+		FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+				new RateLimitFilter(clientRateLimiter, limits, clientHeader, apiKeys, meterRegistry));
+		registration.addUrlPatterns("/api/employees", "/api/employees/*");
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+		return registration;
+	}
+
+	private static RateLimit limit(String budget, Environment environment, double perSecond, int burst) {
+
+		String prefix = "employees.rate-limit." + budget;
+		return RateLimit.of(budget,
+				environment.getProperty(prefix + ".per-second", Double.class, perSecond),
+				environment.getProperty(prefix + ".burst", Integer.class, burst));
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.shah.employees.ratelimit;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author Shahrukh
+ *
+ * Charges every employee API request to its client's budget before the request reaches the
+ * controller, and sheds it with a 429 and Retry-After when the budget is spent. Listings, the
+ * export and the change feed share the list budget, other reads (including the POST by-email
+ * lookup) the read budget, and every other write the write budget. A client is named by its API key
+ * header when the key is one of the configured keys, and by its remote address otherwise, so made-up
+ * keys neither buy a fresh budget nor fill the limiter with clients.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	public static final String READ = "read";
+	public static final String WRITE = "write";
+	public static final String LIST = "list";
+
+	private static final String EMPLOYEES = "/api/employees";
+
+	private final ClientRateLimiter limiter;
+
+	private final Map<String, RateLimit> limits;
+
+	private final String clientHeader;
+
+	private final Set<String> apiKeys;
+
+	private final Map<String, Counter> admitted;
+
+	private final Map<String, Counter> rejected;
+
+	public RateLimitFilter(ClientRateLimiter limiter, Map<String, RateLimit> limits, String clientHeader, Set<String> apiKeys,
+						   MeterRegistry meterRegistry) {
+		this.limiter = limiter;
+		this.limits = Map.copyOf(limits);
+		this.clientHeader = clientHeader;
+		this.apiKeys = Set.copyOf(apiKeys);
+		this.admitted = counters("admitted", meterRegistry);
+		this.rejected = counters("rejected", meterRegistry);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		String budget = budget(request);
+		String apiKey = request.getHeader(clientHeader);
+		String client = apiKey != null && apiKeys.contains(apiKey) ? apiKey : request.getRemoteAddr();
+		long waitNanos = limiter.acquire(client, limits.get(budget));
+		if(waitNanos == 0) {
+			admitted.get(budget).increment();
+			filterChain.doFilter(request, response);
+			return;
+		}
+		rejected.get(budget).increment();
+		//whole seconds, rounded up so a client that waits that long is admitted
+		long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+		response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+				"Rate limit for " + budget + " requests exceeded, retry after " + retryAfter + " s");
+	}
+
+	static String budget(HttpServletRequest request) {
+
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		String method = request.getMethod();
+		if(method.equals("GET") || method.equals("HEAD")) {
+			return path.equals(EMPLOYEES) || path.equals(EMPLOYEES + "/")
+					|| path.equals(EMPLOYEES + "/export") || path.equals(EMPLOYEES + "/changes") ? LIST : READ;
+		}
+		return method.equals("POST") && path.equals(EMPLOYEES + "/by-email") ? READ : WRITE;
+	}
+
+	private static Map<String, Counter> counters(String outcome, MeterRegistry meterRegistry) {
+
+		return Map.of(
+				READ, counter(READ, outcome, meterRegistry),
+				WRITE, counter(WRITE, outcome, meterRegistry),
+				LIST, counter(LIST, outcome, meterRegistry));
+	}
+
+	private static Counter counter(String budget, String outcome, MeterRegistry meterRegistry) {
+
+		return Counter.builder("employees.rate-limit.requests")
+				.description("Employee API requests admitted or rejected by the per-client rate limit")
+				.tag("budget", budget)
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+}
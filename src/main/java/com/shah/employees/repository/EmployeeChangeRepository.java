@@ -0,0 +1,45 @@
+package com.shah.employees.repository;
+
+import java.util.List;
+import java.util.Optional;
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import com.shah.employees.model.EmployeeChange;
+import com.shah.employees.model.EmployeeChangeSequence;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange, Long> {
+
+	//seeks on ux_employee_changes_seq, so a sync costs the number of changes since the client's position, not the table size
+	@Query("select c from EmployeeChange c where c.sequence > :since order by c.sequence asc")
+	List<EmployeeChange> findAfter(@Param("since") long since, Limit limit);
+
+	//committed changes that have no sequence yet, in the order they were written
+	@Query("select c from EmployeeChange c where c.sequence is null order by c.changedAt asc, c.id asc")
+	List<EmployeeChange> findUnpublished(Limit limit);
+
+	//served by ux_employee_changes_seq like findAfter, so an idle feed costs one index probe per call
+	boolean existsBySequenceIsNull();
+
+	//held until the transaction ends, so only one caller at a time hands out sequences; empty while another
+	//caller holds it where the database supports SKIP LOCKED, a plain wait for the lock everywhere else
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+	@Query("select s from EmployeeChangeSequence s where s.id = " + EmployeeChangeSequence.ID)
+	Optional<EmployeeChangeSequence> lockSequenceSkipLocked();
+
+	@Query("select count(s) from EmployeeChangeSequence s where s.id = " + EmployeeChangeSequence.ID)
+	long countSequence();
+
+}
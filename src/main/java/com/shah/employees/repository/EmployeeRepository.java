@@ -1,26 +1,36 @@
 package com.shah.employees.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeView;
+import jakarta.persistence.QueryHint;
 
 /**
  * @author Shahrukh
  *
  */
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
 	Optional<Employee> findByEmail(String email); //findBy"Email" must match with model data member
-
-	//custom query using JPQL with indexed parameters
-	@Query("select e from Employee e where e.firstName= ?1 and e.lastName= ?2")
-	Employee findByJPQLIndexedParams(String firstName, String lastName);
+	
+	//custom query using JPQL with indexed parameters, names are not unique so every match is returned
+	@Query("select e from Employee e where e.firstName= ?1 and e.lastName= ?2 order by e.id")
+	List<Employee> findByJPQLIndexedParams(String firstName, String lastName);
 
 	//custom query using JPQL with named parameters
-	@Query("select e from Employee e where e.firstName= :fname and e.lastName= :lname")
-	Employee findByJPQLNamedParams(@Param("fname") String firstName, @Param("lname") String lastName);
+	@Query("select e from Employee e where e.firstName= :fname and e.lastName= :lname order by e.id")
+	List<Employee> findByJPQLNamedParams(@Param("fname") String firstName, @Param("lname") String lastName);
 	
 	//custom native query with indexed parameters
 	@Query(value = "select * from employees e where e.email= ?1", nativeQuery = true)
@@ -29,6 +39,63 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 	//custom native query with named parameters
 	@Query(value = "select * from employees e where e.email = :searchEmail", nativeQuery = true)
 	Employee findByNativeSQLNamedParam(@Param("searchEmail") String email);
+	
+	//read model for the GET endpoints: constructor projections are never managed entities, so there is no
+	//snapshot per row, no dirty check and nothing to flush, the caller runs them in a read-only transaction
+	@Query("select new com.shah.employees.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e where e.id = :id")
+	Optional<EmployeeView> findViewById(@Param("id") long id);
+	
+	@Query("select new com.shah.employees.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e where e.id in :ids")
+	List<EmployeeView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+	
+	//multi-get by email, one IN query served by the unique email index
+	@Query("select new com.shah.employees.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e where e.email in :emails")
+	List<EmployeeView> findViewsByEmailIn(@Param("emails") Collection<String> emails);
+	
+	//keyset pagination over the primary key: seeks straight to the cursor id, so late pages cost the same as the first
+	@Query("select new com.shah.employees.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e "
+			+ "where e.id > :afterId order by e.id asc")
+	List<EmployeeView> findViewPageAfterId(@Param("afterId") long afterId, Limit limit);
+	
+	@Query("select new com.shah.employees.model.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e "
+			+ "where e.id < :beforeId order by e.id desc")
+	List<EmployeeView> findViewPageBeforeId(@Param("beforeId") long beforeId, Limit limit);
+	
+	//version only, answers conditional GETs without hydrating the entity
+	@Query("select e.version from Employee e where e.id = :id")
+	Optional<Long> findVersionById(@Param("id") long id);
+	
+	//single statement partial update guarded by the version the client last saw, null parameters keep the stored value
+	@Modifying(clearAutomatically = true)
+	@Query("update Employee e set e.firstName = coalesce(cast(:firstName as String), e.firstName), e.lastName = coalesce(cast(:lastName as String), e.lastName), "
+			+ "e.email = coalesce(cast(:email as String), e.email), e.version = e.version + 1 where e.id = :id and e.version = :version")
+	int patchIfVersionMatches(@Param("id") long id, @Param("version") long version, @Param("firstName") String firstName,
+							  @Param("lastName") String lastName, @Param("email") String email);
+	
+	//same partial update for If-Match: *, still bumps the version
+	@Modifying(clearAutomatically = true)
+	@Query("update Employee e set e.firstName = coalesce(cast(:firstName as String), e.firstName), e.lastName = coalesce(cast(:lastName as String), e.lastName), "
+			+ "e.email = coalesce(cast(:email as String), e.email), e.version = e.version + 1 where e.id = :id")
+	int patch(@Param("id") long id, @Param("firstName") String firstName, @Param("lastName") String lastName,
+			  @Param("email") String email);
+	
+	//set-based delete, unlike deleteById no entity is loaded before it is removed
+	@Modifying(clearAutomatically = true)
+	@Query("delete from Employee e where e.id in :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
+	
+	//set-based duplicate check for a whole bulk import chunk
+	@Query("select e.email from Employee e where e.email in :emails")
+	Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+	
+	//forward-only JDBC cursor for full-table export, must be consumed inside a transaction and closed
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+		@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+	})
+	@Query("select e from Employee e order by e.id")
+	Stream<Employee> streamAllOrderById();
 }
 
 /*
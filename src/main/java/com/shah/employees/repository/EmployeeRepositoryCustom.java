@@ -0,0 +1,16 @@
+package com.shah.employees.repository;
+
+import com.shah.employees.model.Employee;
+
+/**
+ * @author Shahrukh
+ *
+ * Persistence-context operations that Spring Data does not derive from method names,
+ * implemented by {@link EmployeeRepositoryCustomImpl} and mixed into {@link EmployeeRepository}.
+ */
+public interface EmployeeRepositoryCustom {
+
+	//evicts the entity from the current persistence context so long-running reads keep a flat heap
+	void detach(Employee employee);
+
+}
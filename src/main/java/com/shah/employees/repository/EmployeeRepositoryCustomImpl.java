@@ -0,0 +1,30 @@
+package com.shah.employees.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import com.shah.employees.model.Employee;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public EmployeeRepositoryCustomImpl() {
+	}
+
+	//for repositories built outside the application context, like the extra shards
+	public EmployeeRepositoryCustomImpl(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public void detach(Employee employee) {
+		
+		entityManager.detach(employee);
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.shah.employees.routing;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.env.Environment;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Hikari pools for databases beyond the auto-configured one, replicas and shards. They are set up
+ * like the auto-configured pool, from spring.datasource.* credentials and spring.datasource.hikari.*.
+ */
+public final class HikariPools {
+
+	private HikariPools() {
+	}
+
+	//pool meters come out as hikaricp.* tagged with pool=employees-<name>, like the auto-configured pool's
+	public static HikariDataSource create(String name, String url, DataSourceProperties properties, Environment environment,
+										  MeterRegistry meterRegistry) {
+
+		HikariDataSource pool = properties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.url(url)
+				.driverClassName(DatabaseDriver.fromJdbcUrl(url).getDriverClassName())
+				.build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+		pool.setPoolName("employees-" + name);
+		pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		return pool;
+	}
+
+}
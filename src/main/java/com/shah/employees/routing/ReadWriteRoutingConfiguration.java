@@ -0,0 +1,58 @@
+package com.shah.employees.routing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Replaces the auto-configured DataSource with a {@link ReadWriteRoutingDataSource} once replica
+ * URLs are configured. The primary pool is built from spring.datasource.*, every replica pool from
+ * its URL plus the same credentials, and all pools take their settings from spring.datasource.hikari.*.
+ * Without employees.datasource.replica-urls the application keeps its single auto-configured pool.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "employees.datasource.replica-urls")
+public class ReadWriteRoutingConfiguration {
+
+	@Bean
+	public RecentWriters recentWriters(@Value("${employees.datasource.replica-lag:2s}") Duration replicaLag) {
+		return new RecentWriters(replicaLag);
+	}
+
+	@Bean
+	public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties,
+												 @Value("${employees.datasource.replica-urls}") List<String> replicaUrls,
+												 RecentWriters recentWriters, Environment environment, MeterRegistry meterRegistry) {
+
+		HikariDataSource primary = HikariPools.create(ReadWriteRoutingDataSource.PRIMARY, properties.determineUrl(), properties, environment, meterRegistry);
+		List<DataSource> replicas = new ArrayList<>();
+		for(int i = 0; i < replicaUrls.size(); i++) {
+			replicas.add(HikariPools.create("replica-" + i, replicaUrls.get(i).trim(), properties, environment, meterRegistry));
+		}
+		return new ReadWriteRoutingDataSource(primary, replicas, recentWriters, meterRegistry);
+	}
+
+	@Bean
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+	public FilterRegistrationBean<RecentWritersFilter> recentWritersFilter(RecentWriters recentWriters,
+																		   @Value("${employees.datasource.client-header:X-Client-Id}") String clientHeader) {
+		FilterRegistrationBean<RecentWritersFilter> registration = new FilterRegistrationBean<>(new RecentWritersFilter(recentWriters, clientHeader));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+		return registration;
+	}
+
+}
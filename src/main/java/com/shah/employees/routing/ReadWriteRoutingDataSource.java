@@ -0,0 +1,104 @@
+package com.shah.employees.routing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Sends read-only transactions to the replicas, round robin, and everything else to the primary.
+ * Connections are handed out lazily, so the physical connection is only picked at the first
+ * statement, after the transaction manager has marked the transaction read-only or not. Reads by a
+ * client with a recent write of its own go to the primary, see {@link RecentWriters}.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+	public static final String PRIMARY = "primary";
+
+	public static final String CONNECTIONS = "employees.datasource.connections";
+
+	private final DataSource primary;
+
+	private final List<DataSource> replicas;
+
+	public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, RecentWriters recentWriters,
+									  MeterRegistry meterRegistry) {
+		this.primary = primary;
+		this.replicas = List.copyOf(replicas);
+		Router router = new Router(primary, this.replicas, recentWriters, meterRegistry);
+		router.afterPropertiesSet();
+		setTargetDataSource(router);
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		for(DataSource dataSource : replicas) {
+			close(dataSource);
+		}
+		close(primary);
+	}
+
+	private static void close(DataSource dataSource) throws IOException {
+
+		if(dataSource instanceof Closeable closeable) {
+			closeable.close();
+		}
+	}
+
+	private static class Router extends AbstractRoutingDataSource {
+
+		private final List<String> replicaKeys = new ArrayList<>();
+
+		private final AtomicInteger nextReplica = new AtomicInteger();
+
+		private final RecentWriters recentWriters;
+
+		private final Map<String, Counter> connections = new HashMap<>();
+
+		Router(DataSource primary, List<DataSource> replicas, RecentWriters recentWriters, MeterRegistry meterRegistry) {
+
+			this.recentWriters = recentWriters;
+			Map<Object, Object> targets = new HashMap<>();
+			targets.put(PRIMARY, primary);
+			for(int i = 0; i < replicas.size(); i++) {
+				replicaKeys.add("replica-" + i);
+				targets.put("replica-" + i, replicas.get(i));
+			}
+			targets.keySet().forEach(key -> connections.put((String) key, Counter.builder(CONNECTIONS)
+					.description("Connections taken from each database")
+					.tag("target", (String) key)
+					.register(meterRegistry)));
+			setTargetDataSources(targets);
+			setDefaultTargetDataSource(primary);
+			setLenientFallback(false);
+		}
+
+		@Override
+		protected Object determineCurrentLookupKey() {
+
+			String key = PRIMARY;
+			if(TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+				if(!replicaKeys.isEmpty() && !recentWriters.mustReadPrimary()) {
+					key = replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+				}
+			} else if(TransactionSynchronizationManager.isActualTransactionActive()) {
+				recentWriters.recordWriteOnCommit();
+			}
+			connections.get(key).increment();
+			return key;
+		}
+	}
+
+}
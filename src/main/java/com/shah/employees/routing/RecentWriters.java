@@ -0,0 +1,96 @@
+package com.shah.employees.routing;
+
+import java.time.Duration;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * @author Shahrukh
+ *
+ * Clients that committed a write less than the replica lag ago. Their read-only transactions go to
+ * the primary, so a client always reads its own writes even before the replicas have caught up.
+ * The client of the current thread is bound per HTTP request by {@link RecentWritersFilter}; work
+ * with no client bound, like startup jobs, always reads from the replicas. Kept in memory, so the
+ * pinning only covers requests that reach the same instance.
+ *
+ * The cache keys of rows written on this instance are kept for the same lag, so a cache does not
+ * keep a row that a replica read returned before it caught up with the write.
+ */
+public class RecentWriters {
+
+	private final ThreadLocal<String> currentClient = new ThreadLocal<>();
+
+	private final Cache<String, Boolean> writers;
+
+	private final Cache<Object, Boolean> writtenKeys;
+
+	public RecentWriters(Duration replicaLag) {
+		this.writers = Caffeine.newBuilder()
+				.expireAfterWrite(replicaLag)
+				.maximumSize(100_000)
+				.build();
+		this.writtenKeys = Caffeine.newBuilder()
+				.expireAfterWrite(replicaLag)
+				.maximumSize(100_000)
+				.build();
+	}
+
+	public Scope bind(String client) {
+
+		currentClient.set(client);
+		return new Scope();
+	}
+
+	public boolean mustReadPrimary() {
+
+		String client = currentClient.get();
+		return client != null && writers.getIfPresent(client) != null;
+	}
+
+	//the lag window starts when the transaction commits, a rolled back transaction wrote nothing
+	void recordWriteOnCommit() {
+
+		String client = currentClient.get();
+		if(client == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				writers.put(client, Boolean.TRUE);
+			}
+		});
+	}
+
+	//for writes another thread already committed on the client's behalf, like a group commit
+	public void recordCommittedWrite() {
+
+		String client = currentClient.get();
+		if(client != null) {
+			writers.put(client, Boolean.TRUE);
+		}
+	}
+
+	//a cache key of a written row, forgotten once the replicas should have caught up
+	public void recordWrittenKey(Object key) {
+		writtenKeys.put(key, Boolean.TRUE);
+	}
+
+	public boolean isRecentlyWritten(Object key) {
+		return writtenKeys.getIfPresent(key) != null;
+	}
+
+	public final class Scope implements AutoCloseable {
+
+		private Scope() {
+		}
+
+		@Override
+		public void close() {
+			currentClient.remove();
+		}
+	}
+
+}
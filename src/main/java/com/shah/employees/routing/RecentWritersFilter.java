@@ -0,0 +1,37 @@
+package com.shah.employees.routing;
+
+import java.io.IOException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author Shahrukh
+ *
+ * Binds the calling client to the request thread for {@link RecentWriters}. A client is named by
+ * the configured header, falling back to its remote address for callers that do not send one.
+ */
+public class RecentWritersFilter extends OncePerRequestFilter {
+
+	private final RecentWriters recentWriters;
+
+	private final String clientHeader;
+
+	public RecentWritersFilter(RecentWriters recentWriters, String clientHeader) {
+		this.recentWriters = recentWriters;
+		this.clientHeader = clientHeader;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		String client = request.getHeader(clientHeader);
+		try(RecentWriters.Scope scope = recentWriters.bind(client == null || client.isBlank() ? request.getRemoteAddr() : client)) {
+			filterChain.doFilter(request, response);
+		}
+	}
+
+}
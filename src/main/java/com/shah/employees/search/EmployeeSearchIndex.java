@@ -0,0 +1,226 @@
+package com.shah.employees.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.service.EmployeeChangedEvent;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ * In-memory, case-insensitive prefix index over first name, last name and email, for typeahead.
+ * Every employee is indexed under each of those values and each word in them (split on anything
+ * that is not a letter or digit), so "gan" finds "Ganguly" and "bcci" finds "dada@bcci.tv". Terms
+ * live in a sorted map, a search is a range scan from the prefix and never touches the database.
+ *
+ * Loaded once at startup, then kept current from {@link EmployeeChangedEvent}s, using the data each
+ * event carries. Like the other caches, it only sees writes made through this instance.
+ */
+@Component
+public class EmployeeSearchIndex implements ApplicationRunner {
+
+	public static final int MAX_LIMIT = 50;
+
+	//separates the term from the zero-padded id, sorts below every character a term can contain
+	private static final char SEPARATOR = '\u0000';
+
+	private EmployeeService employeeService;
+
+	//term + SEPARATOR + id, ordered by term and then id
+	private final ConcurrentSkipListMap<String, Long> terms = new ConcurrentSkipListMap<>();
+
+	private final Map<Long, IndexedEmployee> employees = new ConcurrentHashMap<>();
+
+	//deletes handled while the startup export runs; ids are never reused, so an exported row of one is stale
+	private final Set<Long> deletedDuringLoad = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean loading = true;
+
+	public EmployeeSearchIndex(EmployeeService employeeService) {
+		this.employeeService = employeeService;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+
+		//rows changed while the export runs were already indexed from their event, the older copy is skipped
+		try {
+			employeeService.exportEmployees(employee -> index(employee, false));
+		} finally {
+			loading = false;
+			deletedDuringLoad.clear();
+		}
+	}
+
+	//applied from what the writer already has, a bulk delete or import chunk costs no extra query per row
+	@EventListener
+	public void onEmployeeChanged(EmployeeChangedEvent event) {
+
+		if(event.deleted()) {
+			remove(event.employeeId());
+		} else if(event.employee() != null) {
+			index(event.employee(), true);
+		} else if(event.patch() != null) {
+			patch(event.employeeId(), event.patch(), event.version());
+		}
+		//a failed write changed nothing
+	}
+
+	//matches ordered by the matching term and then id, each employee at most once
+	public EmployeePage search(String query, String cursor, int limit) {
+
+		String prefix = normalize(query);
+		if(prefix.isEmpty()) {
+			throw new BadRequestException("Search query must contain at least one letter or digit");
+		}
+		int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+		String from = cursor == null || cursor.isBlank() ? prefix : decodeCursor(cursor, prefix);
+		NavigableMap<String, Long> range = terms.subMap(from, from.equals(prefix), prefix + Character.MAX_VALUE, false);
+
+		List<EmployeeView> content = new ArrayList<>(pageSize);
+		String lastKey = null;
+		for(Map.Entry<String, Long> entry : range.entrySet()) {
+			IndexedEmployee employee = employees.get(entry.getValue());
+			//an employee with several matching terms is returned at the first one only
+			if(employee == null || !employee.firstMatch(prefix).equals(termOf(entry.getKey()))) {
+				continue;
+			}
+			if(content.size() == pageSize) {
+				return new EmployeePage(content, content.size(), encodeCursor(lastKey));
+			}
+			content.add(employee.toView());
+			lastKey = entry.getKey();
+		}
+		return new EmployeePage(content, content.size(), null);
+	}
+
+	private void index(Employee employee, boolean replace) {
+
+		IndexedEmployee indexed = new IndexedEmployee(employee.getId(), employee.getFirstName(), employee.getLastName(),
+				employee.getEmail(), employee.getVersion(), termsOf(employee));
+		//per-id compute serializes concurrent updates to the same employee
+		employees.compute(employee.getId(), (id, current) -> {
+			if(current != null && (!replace || current.version() > indexed.version())) {
+				return current;
+			}
+			if(!replace && deletedDuringLoad.contains(id)) {
+				return null;
+			}
+			if(current != null) {
+				current.terms().forEach(term -> terms.remove(key(term, id)));
+			}
+			indexed.terms().forEach(term -> terms.put(key(term, id), id));
+			return indexed;
+		});
+	}
+
+	//the patch applies to the version just before it; after a gap, e.g. a concurrent write whose event is
+	//still on its way, the employee is read back instead of patching a base that is not current
+	private void patch(long id, EmployeePatch patch, long version) {
+
+		IndexedEmployee current = employees.get(id);
+		if(current == null || current.version() >= version) {
+			return;
+		}
+		if(current.version() != version - 1) {
+			employeeService.getEmployeeById(id).ifPresent(employee -> index(employee, true));
+			return;
+		}
+		index(new Employee(id,
+				patch.getFirstName() != null ? patch.getFirstName() : current.firstName(),
+				patch.getLastName() != null ? patch.getLastName() : current.lastName(),
+				patch.getEmail() != null ? patch.getEmail() : current.email(),
+				version), true);
+	}
+
+	private void remove(long id) {
+
+		if(loading) {
+			deletedDuringLoad.add(id);
+		}
+		employees.computeIfPresent(id, (key, current) -> {
+			current.terms().forEach(term -> terms.remove(key(term, id)));
+			return null;
+		});
+	}
+
+	private static Set<String> termsOf(Employee employee) {
+
+		Set<String> terms = new LinkedHashSet<>();
+		for(String value : new String[] {employee.getFirstName(), employee.getLastName(), employee.getEmail()}) {
+			if(value == null) {
+				continue;
+			}
+			String normalized = value.toLowerCase(Locale.ROOT).strip();
+			if(!normalized.isEmpty()) {
+				terms.add(normalized);
+			}
+			for(String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+				if(!word.isEmpty()) {
+					terms.add(word);
+				}
+			}
+		}
+		return terms;
+	}
+
+	private static String normalize(String query) {
+		return query == null ? "" : query.toLowerCase(Locale.ROOT).strip();
+	}
+
+	private static String key(String term, long id) {
+		return term + SEPARATOR + String.format("%019d", id);
+	}
+
+	private static String termOf(String key) {
+		return key.substring(0, key.lastIndexOf(SEPARATOR));
+	}
+
+	private static String encodeCursor(String key) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	//a cursor is only valid for the prefix it was issued for
+	private static String decodeCursor(String cursor, String prefix) {
+
+		try {
+			String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if(key.startsWith(prefix) && key.lastIndexOf(SEPARATOR) >= 0) {
+				return key;
+			}
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid search cursor: " + cursor, e);
+		}
+		throw new BadRequestException("Search cursor does not belong to query: " + prefix);
+	}
+
+	private record IndexedEmployee(long id, String firstName, String lastName, String email, long version, Set<String> terms) {
+
+		String firstMatch(String prefix) {
+			return terms.stream().filter(term -> term.startsWith(prefix)).min(String::compareTo).orElse("");
+		}
+
+		EmployeeView toView() {
+			return new EmployeeView(id, firstName, lastName, email, version);
+		}
+	}
+
+}
@@ -0,0 +1,310 @@
+package com.shah.employees.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.routing.RecentWriters;
+
+/**
+ * @author Shahrukh
+ *
+ * Read-through cache in front of {@link EmployeeServiceImpl} for lookups by id and by email.
+ * Size, TTL and statistics come from spring.cache.caffeine.spec; every write evicts the
+ * entries it touches, so readers on this node never see data older than their own write.
+ * Each write is then announced as an {@link EmployeeChangedEvent} for caches kept by other layers.
+ * Cache misses, listings and version checks go through a {@link SingleFlight}, so identical reads
+ * that arrive together reach the database once.
+ *
+ * With read replicas, a miss for a key written on this node less than the replica lag ago is
+ * loaded but not cached, since the replica may still return the row from before that write.
+ */
+@Primary
+@Service
+public class CachingEmployeeService implements EmployeeService {
+
+	public static final String EMPLOYEES_BY_ID = "employeesById";
+	public static final String EMPLOYEE_IDS_BY_EMAIL = "employeeIdsByEmail";
+
+	private EmployeeService employeeService;
+
+	private Cache employeesById;
+
+	//email -> id only, the employee itself lives in a single place so an update has one entry to evict
+	private Cache employeeIdsByEmail;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	private SingleFlight singleFlight;
+
+	//only present when replicas are configured
+	private ObjectProvider<RecentWriters> recentWriters;
+
+	public CachingEmployeeService(@Qualifier("employeeServiceImpl") EmployeeService employeeService,
+								  CacheManager cacheManager, ApplicationEventPublisher eventPublisher, SingleFlight singleFlight,
+								  ObjectProvider<RecentWriters> recentWriters) {
+		this.employeeService = employeeService;
+		this.eventPublisher = eventPublisher;
+		this.singleFlight = singleFlight;
+		this.recentWriters = recentWriters;
+		this.employeesById = cacheManager.getCache(EMPLOYEES_BY_ID);
+		this.employeeIdsByEmail = cacheManager.getCache(EMPLOYEE_IDS_BY_EMAIL);
+	}
+
+	@Override
+	public Employee saveEmployee(Employee employee) {
+
+		recordWrite(null, employee.getEmail());
+		Employee savedEmployee = employeeService.saveEmployee(employee);
+		evict(savedEmployee.getId(), savedEmployee.getEmail(), EmployeeChangedEvent.saved(savedEmployee));
+		return savedEmployee;
+	}
+
+	@Override
+	public EmployeeBatchResult saveEmployees(List<Employee> employees) {
+
+		employees.forEach(employee -> recordWrite(null, employee.getEmail()));
+		EmployeeBatchResult result = employeeService.saveEmployees(employees);
+		//the accepted rows now carry their ids; drop "not found" entries that were cached for them
+		Set<Integer> rejected = result.getErrors().stream().map(EmployeeBatchResult.RowError::getIndex).collect(Collectors.toSet());
+		for(int index = 0; index < employees.size(); index++) {
+			if(!rejected.contains(index)) {
+				Employee employee = employees.get(index);
+				evict(employee.getId(), employee.getEmail(), EmployeeChangedEvent.saved(employee));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public List<Employee> getAllEmployees() {
+
+		//the list is shared by everyone who waited for it, each caller gets its own copies of the entities
+		return singleFlight.execute(List.of("all"), employeeService::getAllEmployees).stream()
+				.map(CachingEmployeeService::copyOf)
+				.toList();
+	}
+
+	@Override
+	public EmployeePage getEmployees(String cursor, int size, Sort.Direction direction) {
+
+		//pages hold immutable views, so one page object can be handed to all waiters
+		return singleFlight.execute(Arrays.asList("page", cursor, size, direction),
+				() -> employeeService.getEmployees(cursor, size, direction));
+	}
+
+	@Override
+	public long exportEmployees(Consumer<Employee> consumer) {
+
+		return employeeService.exportEmployees(consumer);
+	}
+
+	@Override
+	public Optional<Employee> getEmployeeById(long id) {
+
+		//Cache.get(key, loader) is atomic per key, an eviction racing with the load removes the loaded value
+		//concurrent misses wait for that load in the single flight, where the wait is bounded; a waiter that
+		//times out reads past the cache, whose loader would block it on the same key again
+		Cache.ValueWrapper cached = employeesById.get(id);
+		List<Object> key = idKey(id);
+		Supplier<Employee> read = () -> employeeService.getEmployeeById(id).orElse(null);
+		Employee employee = cached != null ? (Employee) cached.get() : singleFlight.execute(key,
+				() -> mayReadStaleReplica(key) ? read.get() : employeesById.get(id, read::get), read);
+		return Optional.ofNullable(employee).map(CachingEmployeeService::copyOf);
+	}
+
+	@Override
+	public Optional<Employee> getEmployeeByEmail(String email) {
+
+		//the email column is not null, and neither cache keys nor flight keys can hold a null
+		if(email == null) {
+			return Optional.empty();
+		}
+		//only the mapping is cached here, a put of the employee could restore a row a concurrent write just evicted
+		//the employee is then read through getEmployeeById, whose atomic load loses such a race instead
+		Cache.ValueWrapper cached = employeeIdsByEmail.get(email);
+		List<Object> key = emailKey(email);
+		Supplier<Long> read = () -> employeeService.getEmployeeByEmail(email).map(Employee::getId).orElse(null);
+		Long id = cached != null ? (Long) cached.get() : singleFlight.execute(key,
+				() -> mayReadStaleReplica(key) ? read.get() : employeeIdsByEmail.get(email, read::get), read);
+		if(id == null) {
+			return Optional.empty();
+		}
+		Optional<Employee> employee = getEmployeeById(id);
+		if(employee.isPresent() && email.equals(employee.get().getEmail())) {
+			return employee;
+		}
+		//the employee was deleted or changed email since the mapping was cached
+		employeeIdsByEmail.evict(email);
+		return employeeService.getEmployeeByEmail(email);
+	}
+
+	@Override
+	public List<EmployeeView> getEmployeesByIds(Collection<Long> ids) {
+
+		Map<Long, EmployeeView> found = new HashMap<>();
+		List<Long> misses = new ArrayList<>();
+		for(Long id : ids) {
+			Cache.ValueWrapper cached = employeesById.get(id);
+			if(cached == null) {
+				misses.add(id);
+			} else if(cached.get() != null) {
+				found.put(id, EmployeeView.of((Employee) cached.get()));
+			}
+		}
+		//one IN query for everything that was not cached; the rows are not put into the cache, a put is not
+		//atomic with the eviction of a write that commits meanwhile and would bring back the row it replaced
+		if(!misses.isEmpty()) {
+			employeeService.getEmployeesByIds(misses).forEach(employee -> found.put(employee.id(), employee));
+		}
+		//views are immutable, unlike cached entities they can be handed out without a copy
+		return ids.stream().distinct().filter(found::containsKey).map(found::get).toList();
+	}
+
+	@Override
+	public List<EmployeeView> getEmployeesByEmails(Collection<String> emails) {
+
+		//read past the caches and not added to them, for the same reason as getEmployeesByIds
+		return employeeService.getEmployeesByEmails(emails);
+	}
+
+	@Override
+	public Optional<Long> getEmployeeVersion(long id) {
+
+		Cache.ValueWrapper cached = employeesById.get(id);
+		if(cached != null) {
+			return Optional.ofNullable((Employee) cached.get()).map(Employee::getVersion);
+		}
+		return singleFlight.execute(List.of("version", id), () -> employeeService.getEmployeeVersion(id));
+	}
+
+	@Override
+	public Employee updateEmployee(Employee updatedEmployee) {
+
+		recordWrite(updatedEmployee.getId(), updatedEmployee.getEmail());
+		try {
+			Employee savedEmployee = employeeService.updateEmployee(updatedEmployee);
+			evict(updatedEmployee.getId(), updatedEmployee.getEmail(), EmployeeChangedEvent.saved(savedEmployee));
+			return savedEmployee;
+		} catch (RuntimeException e) {
+			evict(updatedEmployee.getId(), updatedEmployee.getEmail(), EmployeeChangedEvent.failed(updatedEmployee.getId()));
+			throw e;
+		}
+	}
+
+	@Override
+	public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+
+		recordWrite(id, patch.getEmail());
+		try {
+			long version = employeeService.patchEmployee(id, expectedVersion, patch);
+			evict(id, patch.getEmail(), EmployeeChangedEvent.patched(id, patch, version));
+			return version;
+		} catch (RuntimeException e) {
+			evict(id, patch.getEmail(), EmployeeChangedEvent.failed(id));
+			throw e;
+		}
+	}
+
+	//the email mapping is verified against the id entry on read, so evicting the id is enough for deletes
+	@Override
+	public void deleteEmployee(long id) {
+
+		recordWrite(id, null);
+		try {
+			employeeService.deleteEmployee(id);
+			evict(id, null, EmployeeChangedEvent.deleted(id));
+		} catch (RuntimeException e) {
+			evict(id, null, EmployeeChangedEvent.failed(id));
+			throw e;
+		}
+	}
+
+	@Override
+	public int deleteEmployees(Collection<Long> ids) {
+
+		ids.forEach(id -> recordWrite(id, null));
+		try {
+			int deleted = employeeService.deleteEmployees(ids);
+			ids.forEach(id -> evict(id, null, EmployeeChangedEvent.deleted(id)));
+			return deleted;
+		} catch (RuntimeException e) {
+			ids.forEach(id -> evict(id, null, EmployeeChangedEvent.failed(id)));
+			throw e;
+		}
+	}
+
+	@Override
+	public EmployeeChangePage getChanges(long since, int limit) {
+
+		return employeeService.getChanges(since, limit);
+	}
+
+	private void evict(long id, String email, EmployeeChangedEvent event) {
+
+		recordWrite(id, email);
+		singleFlight.invalidate();
+		employeesById.evict(id);
+		if(email != null) {
+			employeeIdsByEmail.evict(email);
+		}
+		eventPublisher.publishEvent(event);
+	}
+
+	//recorded before the write and again after it, so the lag window starts no earlier than the commit
+	private void recordWrite(Long id, String email) {
+
+		RecentWriters writers = recentWriters.getIfAvailable();
+		if(writers == null) {
+			return;
+		}
+		if(id != null) {
+			writers.recordWrittenKey(idKey(id));
+		}
+		if(email != null) {
+			writers.recordWrittenKey(emailKey(email));
+		}
+	}
+
+	//a client pinned to the primary reads the written row, anyone else may still get the old one from a replica
+	private boolean mayReadStaleReplica(List<Object> key) {
+
+		RecentWriters writers = recentWriters.getIfAvailable();
+		return writers != null && !writers.mustReadPrimary() && writers.isRecentlyWritten(key);
+	}
+
+	private static List<Object> idKey(long id) {
+		return List.of("id", id);
+	}
+
+	private static List<Object> emailKey(String email) {
+		return Arrays.asList("email", email);
+	}
+
+	//cached instances are never handed out, callers such as the PUT endpoint mutate what they get
+	private static Employee copyOf(Employee employee) {
+		return employee.toBuilder().build();
+	}
+
+}
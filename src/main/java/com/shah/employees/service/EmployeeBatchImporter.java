@@ -0,0 +1,69 @@
+package com.shah.employees.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.springframework.stereotype.Component;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+
+/**
+ * @author Shahrukh
+ *
+ * Splits a bulk create into fixed size chunks, each saved by {@link EmployeeService#saveEmployees}
+ * in its own transaction, so a request of any length only holds one chunk in memory. A malformed
+ * row ends the import: it is reported as the last row error, after the errors of the chunks already saved.
+ */
+@Component
+public class EmployeeBatchImporter {
+
+	public static final int CHUNK_SIZE = 500;
+
+	private EmployeeService employeeService;
+
+	public EmployeeBatchImporter(EmployeeService employeeService) {
+		this.employeeService = employeeService;
+	}
+
+	public EmployeeBatchResult importEmployees(Iterator<Employee> employees) {
+		
+		List<Employee> chunk = new ArrayList<>(CHUNK_SIZE);
+		List<EmployeeBatchResult.RowError> errors = new ArrayList<>();
+		int received = 0;
+		int created = 0;
+		while(true) {
+			Employee employee;
+			try {
+				if(!employees.hasNext()) {
+					break;
+				}
+				employee = employees.next();
+			} catch (RuntimeException e) {
+				//rows read before the malformed one are still imported, nothing after it can be read
+				created += importChunk(chunk, received - chunk.size(), errors).getCreated();
+				errors.add(new EmployeeBatchResult.RowError(received, null,
+						"Malformed employee, the rows after it were not read: " + e.getMessage()));
+				return new EmployeeBatchResult(received + 1, created, errors);
+			}
+			chunk.add(employee);
+			received++;
+			if(chunk.size() == CHUNK_SIZE) {
+				created += importChunk(chunk, received - chunk.size(), errors).getCreated();
+			}
+		}
+		created += importChunk(chunk, received - chunk.size(), errors).getCreated();
+		return new EmployeeBatchResult(received, created, errors);
+	}
+
+	private EmployeeBatchResult importChunk(List<Employee> chunk, int offset, List<EmployeeBatchResult.RowError> errors) {
+		
+		if(chunk.isEmpty()) {
+			return new EmployeeBatchResult(0, 0, List.of());
+		}
+		EmployeeBatchResult result = employeeService.saveEmployees(chunk);
+		result.getErrors().forEach(error -> errors.add(new EmployeeBatchResult.RowError(
+				offset + error.getIndex(), error.getEmail(), error.getMessage())));
+		chunk.clear();
+		return result;
+	}
+}
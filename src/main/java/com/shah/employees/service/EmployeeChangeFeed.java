@@ -0,0 +1,97 @@
+package com.shah.employees.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import com.shah.employees.model.EmployeeChange;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeeChangeSequence;
+import com.shah.employees.model.EmployeeChangeView;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.repository.EmployeeChangeRepository;
+import com.shah.employees.repository.EmployeeRepository;
+
+/**
+ * @author Shahrukh
+ *
+ * The two steps of a change feed read, each in a transaction of its own, called one after the other
+ * by {@link EmployeeServiceImpl#getChanges}. Publishing numbers the changes committed since the last
+ * call, on the primary, and skips when nothing is waiting or another caller holds the counter. The
+ * read is read-only, so replicas can serve it; whatever it cannot see yet comes with a later call.
+ */
+@Component
+public class EmployeeChangeFeed {
+
+	private EmployeeRepository employeeRepository;
+
+	private EmployeeChangeRepository employeeChangeRepository;
+
+	public EmployeeChangeFeed(EmployeeRepository employeeRepository, EmployeeChangeRepository employeeChangeRepository) {
+		this.employeeRepository = employeeRepository;
+		this.employeeChangeRepository = employeeChangeRepository;
+	}
+
+	//a transaction still in flight is invisible here and gets its numbers from a later call, above every
+	//number handed out now; returns true when more changes are waiting than one call numbers
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public boolean publish() {
+
+		if(!employeeChangeRepository.existsBySequenceIsNull()) {
+			return false;
+		}
+		EmployeeChangeSequence sequence = employeeChangeRepository.lockSequenceSkipLocked().orElse(null);
+		if(sequence == null) {
+			if(employeeChangeRepository.countSequence() == 0) {
+				throw new IllegalStateException("Table employee_change_sequence has no row with id "
+						+ EmployeeChangeSequence.ID + ", insert it with last_sequence 0");
+			}
+			//another caller is numbering right now, its numbers show up on the next read
+			return false;
+		}
+		List<EmployeeChange> unpublished = employeeChangeRepository.findUnpublished(Limit.of(EmployeeServiceImpl.MAX_CHANGES_PAGE_SIZE));
+		long last = sequence.getLastSequence();
+		for(EmployeeChange change : unpublished) {
+			change.setSequence(++last);
+		}
+		sequence.setLastSequence(last);
+		return unpublished.size() == EmployeeServiceImpl.MAX_CHANGES_PAGE_SIZE;
+	}
+
+	@Transactional(readOnly = true)
+	public EmployeeChangePage read(long since, int pageSize, boolean backlog) {
+
+		List<EmployeeChange> rows = employeeChangeRepository.findAfter(since, Limit.of(pageSize));
+		boolean more = rows.size() == pageSize || backlog;
+
+		//the last change of each employee, in sequence order
+		Map<Long, EmployeeChange> latest = new LinkedHashMap<>();
+		rows.forEach(change -> {
+			latest.remove(change.getEmployeeId());
+			latest.put(change.getEmployeeId(), change);
+		});
+		List<Long> liveIds = latest.values().stream()
+				.filter(change -> change.getType() != EmployeeChange.Type.DELETED)
+				.map(EmployeeChange::getEmployeeId)
+				.toList();
+		Map<Long, EmployeeView> employeesById = liveIds.isEmpty() ? Map.of() : employeeRepository.findViewsByIdIn(liveIds).stream()
+				.collect(Collectors.toMap(EmployeeView::id, Function.identity()));
+
+		//an employee deleted after this page is already a tombstone here, its delete comes on a later page
+		List<EmployeeChangeView> changes = latest.values().stream()
+				.map(change -> {
+					EmployeeView employee = employeesById.get(change.getEmployeeId());
+					return new EmployeeChangeView(change.getSequence(),
+							employee == null ? EmployeeChange.Type.DELETED : change.getType(), change.getEmployeeId(), employee);
+				})
+				.toList();
+		long lastSequence = rows.isEmpty() ? since : rows.get(rows.size() - 1).getSequence();
+		return new EmployeeChangePage(changes, lastSequence, more);
+	}
+
+}
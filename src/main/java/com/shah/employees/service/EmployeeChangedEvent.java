@@ -0,0 +1,34 @@
+package com.shah.employees.service;
+
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeePatch;
+
+/**
+ * @author Shahrukh
+ *
+ * Published by {@link CachingEmployeeService} after a write to the employee with the given id has completed,
+ * so caches outside the service layer (encoded responses, search index) can drop what they hold for it.
+ * It carries what the writer already has, so a listener never needs to read the employee back: the saved
+ * employee after a create or update, the patch and the new version after a patch, or the deletion. After a
+ * write that failed it carries none of them.
+ */
+public record EmployeeChangedEvent(long employeeId, Employee employee, EmployeePatch patch, long version, boolean deleted) {
+
+	public static EmployeeChangedEvent saved(Employee employee) {
+		return new EmployeeChangedEvent(employee.getId(), employee, null, employee.getVersion(), false);
+	}
+
+	public static EmployeeChangedEvent patched(long employeeId, EmployeePatch patch, long version) {
+		return new EmployeeChangedEvent(employeeId, null, patch, version, false);
+	}
+
+	public static EmployeeChangedEvent deleted(long employeeId) {
+		return new EmployeeChangedEvent(employeeId, null, null, 0L, true);
+	}
+
+	//the write failed, nothing is known about the row except that it may have been touched
+	public static EmployeeChangedEvent failed(long employeeId) {
+		return new EmployeeChangedEvent(employeeId, null, null, 0L, false);
+	}
+
+}
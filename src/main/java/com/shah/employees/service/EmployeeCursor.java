@@ -0,0 +1,35 @@
+package com.shah.employees.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.data.domain.Sort;
+import com.shah.employees.exception.BadRequestException;
+
+/**
+ * @author Shahrukh
+ *
+ * Opaque keyset cursor: the id of the last row already returned plus the sort direction,
+ * so the next page is "id after/before lastId" and never needs an OFFSET.
+ */
+public record EmployeeCursor(long lastId, Sort.Direction direction) {
+
+	public static EmployeeCursor first(Sort.Direction direction) {
+		return new EmployeeCursor(direction.isAscending() ? 0L : Long.MAX_VALUE, direction);
+	}
+
+	public String encode() {
+		String raw = direction.name().toLowerCase() + ":" + lastId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	public static EmployeeCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+			int separator = raw.indexOf(':');
+			return new EmployeeCursor(Long.parseLong(raw.substring(separator + 1)),
+					Sort.Direction.fromString(raw.substring(0, separator)));
+		} catch (RuntimeException e) {
+			throw new BadRequestException("Invalid page cursor: " + token, e);
+		}
+	}
+}
@@ -1,8 +1,16 @@
 package com.shah.employees.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.data.domain.Sort;
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
 
 /**
  * @author Shahrukh
@@ -12,12 +20,35 @@ public interface EmployeeService {
 	
 	Employee saveEmployee(Employee employee);
 	
+	EmployeeBatchResult saveEmployees(List<Employee> employees);
+	
 	List<Employee> getAllEmployees();
 	
+	EmployeePage getEmployees(String cursor, int size, Sort.Direction direction);
+	
+	long exportEmployees(Consumer<Employee> consumer);
+	
 	Optional<Employee> getEmployeeById(long id);
 	
+	Optional<Employee> getEmployeeByEmail(String email);
+	
+	//found employees only, in the order of the requested ids
+	List<EmployeeView> getEmployeesByIds(Collection<Long> ids);
+	
+	List<EmployeeView> getEmployeesByEmails(Collection<String> emails);
+	
+	Optional<Long> getEmployeeVersion(long id);
+	
 	Employee updateEmployee(Employee updatedEmployee);
 	
+	//returns the new version, expectedVersion null means unconditional
+	long patchEmployee(long id, Long expectedVersion, EmployeePatch patch);
+	
 	void deleteEmployee(long id);
 	
+	int deleteEmployees(Collection<Long> ids);
+	
+	//creates, updates and deletes recorded after the since sequence
+	EmployeeChangePage getChanges(long since, int limit);
+	
 }
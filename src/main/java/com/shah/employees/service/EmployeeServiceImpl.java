@@ -1,56 +1,311 @@
 package com.shah.employees.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.exception.DuplicateEmailException;
+import com.shah.employees.exception.PreconditionFailedException;
 import com.shah.employees.exception.ResourceNotFoundException;
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeeChange;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.repository.EmployeeChangeRepository;
 import com.shah.employees.repository.EmployeeRepository;
 
 /**
  * @author Shahrukh
  *
  */
+@Service
 public class EmployeeServiceImpl implements EmployeeService {
 	
+	public static final int MAX_PAGE_SIZE = 200;
+	
+	public static final int MAX_CHANGES_PAGE_SIZE = 1000;
+	
 	//@Autowired - not required, as ctor based dependency injections is implemented
 	private EmployeeRepository employeeRepository;
 	
-	public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+	private EmployeeChangeRepository employeeChangeRepository;
+	
+	private EmployeeChangeFeed employeeChangeFeed;
+	
+	//held around the numbering transaction, so feed readers of this instance skip it instead of queueing on the counter row
+	private final ReentrantLock publishing = new ReentrantLock();
+	
+	public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeChangeRepository employeeChangeRepository,
+							   EmployeeChangeFeed employeeChangeFeed) {
 		this.employeeRepository = employeeRepository;
+		this.employeeChangeRepository = employeeChangeRepository;
+		this.employeeChangeFeed = employeeChangeFeed;
 	}
 
 	@Override
+	@Transactional
 	public Employee saveEmployee(Employee employee) {
 		
-		Optional<Employee> savedEmployeeFromDB = employeeRepository.findByEmail(employee.getEmail());
-		if(savedEmployeeFromDB.isPresent()) {
-			throw new ResourceNotFoundException("Employee already exist with given email: " + employee.getEmail());
+		//create only, an id or version sent by the client must not turn the insert into an update
+		employee.setId(0L);
+		employee.setVersion(0L);
+		Employee savedEmployee;
+		try {
+			//the unique email index rejects duplicates, so there is no findByEmail round trip before the insert
+			savedEmployee = employeeRepository.saveAndFlush(employee);
+		} catch (DataIntegrityViolationException e) {
+			throw translateDuplicateEmail(e, employee.getEmail());
+		}
+		employeeChangeRepository.save(EmployeeChange.of(EmployeeChange.Type.CREATED, savedEmployee.getId()));
+		return savedEmployee;
+	}
+
+	@Override
+	@Transactional
+	public EmployeeBatchResult saveEmployees(List<Employee> employees) {
+		
+		//one query for the whole chunk instead of a findByEmail per row
+		Set<String> emails = new HashSet<>();
+		employees.stream().map(Employee::getEmail).filter(Objects::nonNull).forEach(emails::add);
+		Set<String> existingEmails = emails.isEmpty() ? Set.of() : employeeRepository.findExistingEmails(emails);
+		
+		List<Employee> accepted = new ArrayList<>(employees.size());
+		List<EmployeeBatchResult.RowError> errors = new ArrayList<>();
+		Set<String> emailsInChunk = new HashSet<>();
+		for(int index = 0; index < employees.size(); index++) {
+			Employee employee = employees.get(index);
+			if(isBlank(employee.getFirstName()) || isBlank(employee.getLastName()) || isBlank(employee.getEmail())) {
+				errors.add(new EmployeeBatchResult.RowError(index, employee.getEmail(), "firstName, lastName and email are required"));
+			} else if(existingEmails.contains(employee.getEmail()) || !emailsInChunk.add(employee.getEmail())) {
+				errors.add(new EmployeeBatchResult.RowError(index, employee.getEmail(), "Employee already exist with given email: " + employee.getEmail()));
+			} else {
+				//bulk import only creates, an id sent by the client must not turn the row into an update
+				employee.setId(0L);
+				employee.setVersion(0L);
+				accepted.add(employee);
+			}
+		}
+		try {
+			employeeRepository.saveAllAndFlush(accepted);
+		} catch (DataIntegrityViolationException e) {
+			//only reachable when a concurrent writer inserted one of these emails after the check above
+			throw translateDuplicateEmail(e, "one of the emails in this chunk");
 		}
-		return employeeRepository.save(employee);
+		employeeChangeRepository.saveAll(accepted.stream()
+				.map(employee -> EmployeeChange.of(EmployeeChange.Type.CREATED, employee.getId()))
+				.toList());
+		return new EmployeeBatchResult(employees.size(), accepted.size(), errors);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Employee> getAllEmployees() {
 		
 		return employeeRepository.findAll();
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public EmployeePage getEmployees(String cursor, int size, Sort.Direction direction) {
+		
+		EmployeeCursor position = cursor == null || cursor.isBlank()
+				? EmployeeCursor.first(direction)
+				: EmployeeCursor.decode(cursor);
+		int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+		
+		//fetch one extra row to learn whether a next page exists without a count query
+		Limit limit = Limit.of(pageSize + 1);
+		List<EmployeeView> rows = position.direction().isAscending()
+				? employeeRepository.findViewPageAfterId(position.lastId(), limit)
+				: employeeRepository.findViewPageBeforeId(position.lastId(), limit);
+		
+		if(rows.size() <= pageSize) {
+			return new EmployeePage(rows, rows.size(), null);
+		}
+		List<EmployeeView> content = rows.subList(0, pageSize);
+		String nextCursor = new EmployeeCursor(content.get(pageSize - 1).id(), position.direction()).encode();
+		return new EmployeePage(content, pageSize, nextCursor);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long exportEmployees(Consumer<Employee> consumer) {
+		
+		long exported = 0;
+		try(Stream<Employee> employees = employeeRepository.streamAllOrderById()) {
+			Iterator<Employee> iterator = employees.iterator();
+			while(iterator.hasNext()) {
+				Employee employee = iterator.next();
+				consumer.accept(employee);
+				//written rows are detached so the persistence context does not grow with the table
+				employeeRepository.detach(employee);
+				exported++;
+			}
+		}
+		return exported;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public Optional<Employee> getEmployeeById(long id) {
 		
-		return employeeRepository.findById(id);
+		//callers get a detached copy either way, loading it as a projection skips the persistence context
+		return employeeRepository.findViewById(id).map(EmployeeView::toEmployee);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	public Optional<Employee> getEmployeeByEmail(String email) {
+		
+		return employeeRepository.findByEmail(email);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<EmployeeView> getEmployeesByIds(Collection<Long> ids) {
+		
+		Map<Long, EmployeeView> employeesById = employeeRepository.findViewsByIdIn(ids).stream()
+				.collect(Collectors.toMap(EmployeeView::id, Function.identity()));
+		return ids.stream().distinct().map(employeesById::get).filter(Objects::nonNull).toList();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<EmployeeView> getEmployeesByEmails(Collection<String> emails) {
+		
+		return employeeRepository.findViewsByEmailIn(emails);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> getEmployeeVersion(long id) {
+		
+		return employeeRepository.findVersionById(id);
+	}
+
+	@Override
+	@Transactional
 	public Employee updateEmployee(Employee updatedEmployee) {
 		
-		return employeeRepository.save(updatedEmployee);
+		Employee savedEmployee;
+		try {
+			savedEmployee = employeeRepository.saveAndFlush(updatedEmployee);
+		} catch (DataIntegrityViolationException e) {
+			throw translateDuplicateEmail(e, updatedEmployee.getEmail());
+		}
+		employeeChangeRepository.save(EmployeeChange.of(EmployeeChange.Type.UPDATED, savedEmployee.getId()));
+		return savedEmployee;
 	}
 
 	@Override
+	@Transactional
+	public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+		
+		if(patch.getFirstName() == null && patch.getLastName() == null && patch.getEmail() == null) {
+			throw new BadRequestException("Nothing to update, send at least one of firstName, lastName or email");
+		}
+		if(isBlankButPresent(patch.getFirstName()) || isBlankButPresent(patch.getLastName()) || isBlankButPresent(patch.getEmail())) {
+			throw new BadRequestException("firstName, lastName and email cannot be blank");
+		}
+		int updated;
+		try {
+			updated = expectedVersion == null
+					? employeeRepository.patch(id, patch.getFirstName(), patch.getLastName(), patch.getEmail())
+					: employeeRepository.patchIfVersionMatches(id, expectedVersion, patch.getFirstName(), patch.getLastName(), patch.getEmail());
+		} catch (DataIntegrityViolationException e) {
+			throw translateDuplicateEmail(e, patch.getEmail());
+		}
+		//the version is only read again on the failure path, or to report the unconditional result
+		Optional<Long> currentVersion = updated == 0 || expectedVersion == null
+				? employeeRepository.findVersionById(id) : Optional.of(expectedVersion + 1);
+		if(currentVersion.isEmpty()) {
+			throw new ResourceNotFoundException("Employee not found with id: " + id);
+		}
+		if(updated == 0) {
+			throw new PreconditionFailedException("Employee " + id + " was modified, current version is " + currentVersion.get());
+		}
+		employeeChangeRepository.save(EmployeeChange.of(EmployeeChange.Type.UPDATED, id));
+		return currentVersion.get();
+	}
+
+	@Override
+	@Transactional
 	public void deleteEmployee(long id) {
 
-		employeeRepository.deleteById(id);
+		if(employeeRepository.deleteByIdIn(List.of(id)) == 0) {
+			throw new ResourceNotFoundException("Employee not found with id: " + id);
+		}
+		employeeChangeRepository.save(EmployeeChange.of(EmployeeChange.Type.DELETED, id));
+	}
+
+	@Override
+	@Transactional
+	public int deleteEmployees(Collection<Long> ids) {
+		
+		int deleted = ids.isEmpty() ? 0 : employeeRepository.deleteByIdIn(ids);
+		if(deleted > 0) {
+			//the bulk delete does not say which ids existed, a tombstone for an unknown id is a no-op for the client
+			employeeChangeRepository.saveAll(ids.stream().distinct()
+					.map(id -> EmployeeChange.of(EmployeeChange.Type.DELETED, id))
+					.toList());
+		}
+		return deleted;
+	}
+
+	//not transactional itself: numbering and reading are separate transactions, one connection at a time
+	@Override
+	public EmployeeChangePage getChanges(long since, int limit) {
+		
+		int pageSize = Math.min(Math.max(limit, 1), MAX_CHANGES_PAGE_SIZE);
+		boolean backlog = false;
+		if(publishing.tryLock()) {
+			try {
+				backlog = employeeChangeFeed.publish();
+			} finally {
+				publishing.unlock();
+			}
+		}
+		return employeeChangeFeed.read(since, pageSize, backlog);
+	}
+
+	//maps a violation of the unique email index to a 409, anything else is rethrown untouched
+	private static RuntimeException translateDuplicateEmail(DataIntegrityViolationException e, String email) {
+		
+		for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if(cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+					&& violation.getConstraintName().toLowerCase().contains(Employee.EMAIL_INDEX)) {
+				return new DuplicateEmailException("Employee already exist with given email: " + email, e);
+			}
+		}
+		return e;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.isBlank();
+	}
+
+	private static boolean isBlankButPresent(String value) {
+		return value != null && value.isBlank();
 	}
 
 }
@@ -0,0 +1,112 @@
+package com.shah.employees.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.shah.employees.routing.RecentWriters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Coalesces concurrent identical reads: the first caller for a key runs the call, callers that
+ * arrive while it is in flight wait for its result or exception instead of running their own. A
+ * waiter gives up after max-wait and makes the fallback call itself, still behind the database
+ * bulkhead. The fallback must not wait for the leader's call, so a call that loads through a cache
+ * passes a fallback that reads past it.
+ *
+ * Nothing is kept once a call returns, so this is not a cache. Every write on this instance starts
+ * a new generation of keys, so a read issued after a write never joins a call started before it.
+ * A client pinned to the primary by {@link RecentWriters} only joins other pinned callers.
+ */
+@Component
+public class SingleFlight {
+
+	private final ConcurrentHashMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private final Duration maxWait;
+
+	private final ObjectProvider<RecentWriters> recentWriters;
+
+	private final Counter leaders;
+
+	private final Counter followers;
+
+	private final Counter timeouts;
+
+	public SingleFlight(@Value("${employees.single-flight.max-wait:2s}") Duration maxWait,
+						ObjectProvider<RecentWriters> recentWriters, MeterRegistry meterRegistry) {
+		this.maxWait = maxWait;
+		this.recentWriters = recentWriters;
+		this.leaders = counter("leader", meterRegistry);
+		this.followers = counter("shared", meterRegistry);
+		this.timeouts = counter("timeout", meterRegistry);
+	}
+
+	public <T> T execute(List<Object> key, Supplier<T> call) {
+		return execute(key, call, call);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T execute(List<Object> key, Supplier<T> call, Supplier<T> fallback) {
+
+		RecentWriters writers = recentWriters.getIfAvailable();
+		List<Object> flightKey = List.of(generation.get(), writers != null && writers.mustReadPrimary(), key);
+		CompletableFuture<Object> flight = new CompletableFuture<>();
+		CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+		if(leader == null) {
+			leaders.increment();
+			try {
+				T result = call.get();
+				flight.complete(result);
+				return result;
+			} catch (RuntimeException | Error e) {
+				flight.completeExceptionally(e);
+				throw e;
+			} finally {
+				inFlight.remove(flightKey, flight);
+			}
+		}
+		try {
+			T result = (T) leader.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+			followers.increment();
+			return result;
+		} catch (TimeoutException e) {
+			timeouts.increment();
+			return fallback.get();
+		} catch (ExecutionException e) {
+			followers.increment();
+			throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a shared read", e);
+		}
+	}
+
+	//calls already in flight finish for their waiters, later callers start new ones
+	public void invalidate() {
+		generation.incrementAndGet();
+	}
+
+	private static Counter counter(String outcome, MeterRegistry meterRegistry) {
+
+		return Counter.builder("employees.single-flight.calls")
+				.description("Coalesced reads: calls that ran, calls that shared a result, and waits that timed out")
+				.tag("outcome", outcome)
+				.register(meterRegistry);
+	}
+
+}
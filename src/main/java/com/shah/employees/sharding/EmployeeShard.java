@@ -0,0 +1,125 @@
+package com.shah.employees.sharding;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.querydsl.EntityPathResolver;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import com.shah.employees.model.Employee;
+import com.shah.employees.repository.EmployeeChangeRepository;
+import com.shah.employees.repository.EmployeeRepository;
+import com.shah.employees.repository.EmployeeRepositoryCustomImpl;
+import com.shah.employees.service.EmployeeChangeFeed;
+import com.shah.employees.service.EmployeeService;
+import com.shah.employees.service.EmployeeServiceImpl;
+import jakarta.persistence.EntityManager;
+
+/**
+ * @author Shahrukh
+ *
+ * One of the additional shards: its own pool, persistence unit, transaction manager, repository
+ * and {@link EmployeeServiceImpl}, wired by hand the way Spring wires the application's own. The
+ * repository is transactional and translates exceptions like a Spring Data bean, and the service
+ * honours its @Transactional annotations against this shard's transaction manager.
+ */
+class EmployeeShard implements Closeable {
+
+	private final DataSource dataSource;
+
+	private final LocalContainerEntityManagerFactoryBean entityManagerFactory;
+
+	private final EmployeeService employeeService;
+
+	EmployeeShard(String name, DataSource dataSource, Map<String, Object> jpaProperties) {
+
+		this.dataSource = dataSource;
+		this.entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+		entityManagerFactory.setPersistenceUnitName(name);
+		entityManagerFactory.setDataSource(dataSource);
+		entityManagerFactory.setPackagesToScan(Employee.class.getPackageName());
+		entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		entityManagerFactory.setJpaPropertyMap(new HashMap<>(jpaProperties));
+		entityManagerFactory.afterPropertiesSet();
+
+		JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+		EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+
+		//the factory bean finds the transaction manager and exception translator by name and type, as in the context
+		StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of(
+				"transactionManager", transactionManager,
+				"exceptionTranslator", new HibernateJpaDialect(),
+				"entityPathResolver", SimpleEntityPathResolver.INSTANCE));
+		EmployeeRepository employeeRepository = repository(EmployeeRepository.class, beans, entityManager,
+				RepositoryComposition.RepositoryFragments.just(new EmployeeRepositoryCustomImpl(entityManager)));
+		EmployeeChangeRepository employeeChangeRepository = repository(EmployeeChangeRepository.class, beans, entityManager,
+				RepositoryComposition.RepositoryFragments.empty());
+
+		TransactionInterceptor transactions = new TransactionInterceptor((TransactionManager) transactionManager,
+				new AnnotationTransactionAttributeSource());
+		ProxyFactory feedProxy = new ProxyFactory(new EmployeeChangeFeed(employeeRepository, employeeChangeRepository));
+		feedProxy.setProxyTargetClass(true);
+		feedProxy.addAdvice(transactions);
+		ProxyFactory serviceProxy = new ProxyFactory(new EmployeeServiceImpl(employeeRepository, employeeChangeRepository,
+				(EmployeeChangeFeed) feedProxy.getProxy()));
+		serviceProxy.addAdvice(transactions);
+		this.employeeService = (EmployeeService) serviceProxy.getProxy();
+	}
+
+	private static <R extends Repository<T, Long>, T> R repository(Class<R> repositoryInterface, ListableBeanFactory beans,
+																	 EntityManager entityManager, RepositoryComposition.RepositoryFragments fragments) {
+
+		JpaRepositoryFactoryBean<R, T, Long> repositoryFactory = new JpaRepositoryFactoryBean<>(repositoryInterface);
+		repositoryFactory.setBeanFactory(beans);
+		repositoryFactory.setEntityManager(entityManager);
+		repositoryFactory.setEntityPathResolver(beans.getBeanProvider(EntityPathResolver.class));
+		repositoryFactory.setRepositoryFragments(fragments);
+		repositoryFactory.afterPropertiesSet();
+		return repositoryFactory.getObject();
+	}
+
+	//lookups by id only ask the shard the id names, so a row anywhere else could never be found again
+	static void checkPlacement(String name, DataSource dataSource, int shardCount, int shardIndex) {
+
+		Long misplaced = new JdbcTemplate(dataSource).queryForObject("SELECT MIN(id) FROM employees WHERE MOD(id, ?) <> ?",
+				Long.class, shardCount, shardIndex);
+		if(misplaced != null) {
+			throw new IllegalStateException("Shard " + name + " holds employee " + misplaced + ", which belongs on shard "
+					+ Math.floorMod(misplaced, (long) shardCount) + " of " + shardCount
+					+ "; move existing employees to the shard their id names before enabling employees.sharding.shard-urls");
+		}
+	}
+
+	EmployeeService employeeService() {
+		return employeeService;
+	}
+
+	@Override
+	public void close() {
+
+		entityManagerFactory.destroy();
+		if(dataSource instanceof Closeable closeable) {
+			try {
+				closeable.close();
+			} catch (Exception e) {
+				//the pool is gone either way, nothing left to release
+			}
+		}
+	}
+
+}
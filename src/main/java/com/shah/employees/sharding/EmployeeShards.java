@@ -0,0 +1,41 @@
+package com.shah.employees.sharding;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ * Shards 1 to N-1 and the threads that query shards in parallel. Shard 0 is the application's own
+ * DataSource and {@link com.shah.employees.service.EmployeeServiceImpl} bean.
+ */
+public class EmployeeShards implements Closeable {
+
+	private final List<EmployeeShard> shards;
+
+	//shard calls block on JDBC, a virtual thread per call costs nothing while it waits
+	private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("employees-shard-", 0).factory());
+
+	EmployeeShards(List<EmployeeShard> shards) {
+		this.shards = List.copyOf(shards);
+	}
+
+	List<EmployeeService> employeeServices() {
+		return shards.stream().map(EmployeeShard::employeeService).toList();
+	}
+
+	ExecutorService executor() {
+		return executor;
+	}
+
+	@Override
+	public void close() {
+
+		executor.shutdownNow();
+		shards.forEach(EmployeeShard::close);
+	}
+
+}
@@ -0,0 +1,239 @@
+package com.shah.employees.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.springframework.data.domain.Sort;
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.service.EmployeeCursor;
+import com.shah.employees.service.EmployeeService;
+import com.shah.employees.service.EmployeeServiceImpl;
+
+/**
+ * @author Shahrukh
+ *
+ * Spreads employees over N shards, each served by its own {@link EmployeeServiceImpl}. A new
+ * employee goes to the shard its email hashes to, and {@link ShardedSequenceGenerator} gives it an
+ * id congruent to that shard, so lookups by id or by email each reach a single shard. Because the
+ * email decides the shard, the per-shard unique email index is still global, and an update may not
+ * change an email to one that hashes to another shard.
+ *
+ * Listings and multi-gets query the shards they need in parallel and merge the results. The merged
+ * page is in id order and carries the same kind of cursor as an unsharded page.
+ */
+public class ShardedEmployeeService implements EmployeeService {
+
+	private final List<EmployeeService> shards;
+
+	private final Executor executor;
+
+	public ShardedEmployeeService(List<EmployeeService> shards, Executor executor) {
+		this.shards = List.copyOf(shards);
+		this.executor = executor;
+	}
+
+	public int shardOfId(long id) {
+		return (int) Math.floorMod(id, (long) shards.size());
+	}
+
+	//String.hashCode is fixed by the language spec, so the placement survives restarts and upgrades
+	public int shardOfEmail(String email) {
+
+		if(email == null) {
+			return 0;
+		}
+		int hash = email.hashCode();
+		return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+	}
+
+	@Override
+	public Employee saveEmployee(Employee employee) {
+		return shards.get(shardOfEmail(employee.getEmail())).saveEmployee(employee);
+	}
+
+	@Override
+	public EmployeeBatchResult saveEmployees(List<Employee> employees) {
+
+		//positions in the request body, grouped by the shard each row goes to
+		Map<Integer, List<Integer>> positions = IntStream.range(0, employees.size()).boxed()
+				.collect(Collectors.groupingBy(index -> shardOfEmail(employees.get(index).getEmail()), LinkedHashMap::new, Collectors.toList()));
+		Map<Integer, EmployeeBatchResult> results = scatter(positions.keySet(), shard ->
+				shards.get(shard).saveEmployees(positions.get(shard).stream().map(employees::get).toList()));
+
+		int created = 0;
+		List<EmployeeBatchResult.RowError> errors = new ArrayList<>();
+		for(Map.Entry<Integer, EmployeeBatchResult> result : results.entrySet()) {
+			created += result.getValue().getCreated();
+			List<Integer> shardPositions = positions.get(result.getKey());
+			result.getValue().getErrors().forEach(error -> errors.add(new EmployeeBatchResult.RowError(
+					shardPositions.get(error.getIndex()), error.getEmail(), error.getMessage())));
+		}
+		errors.sort(Comparator.comparingInt(EmployeeBatchResult.RowError::getIndex));
+		return new EmployeeBatchResult(employees.size(), created, errors);
+	}
+
+	@Override
+	public List<Employee> getAllEmployees() {
+
+		return scatter(allShards(), shard -> shards.get(shard).getAllEmployees()).values().stream()
+				.flatMap(List::stream)
+				.sorted(Comparator.comparingLong(Employee::getId))
+				.toList();
+	}
+
+	//every shard returns its own next page after the cursor, the merged page keeps the first rows in id order
+	@Override
+	public EmployeePage getEmployees(String cursor, int size, Sort.Direction direction) {
+
+		int pageSize = Math.min(Math.max(size, 1), EmployeeServiceImpl.MAX_PAGE_SIZE);
+		Collection<EmployeePage> pages = scatter(allShards(), shard -> shards.get(shard).getEmployees(cursor, pageSize, direction)).values();
+		Comparator<EmployeeView> order = Comparator.comparingLong(EmployeeView::id);
+		List<EmployeeView> rows = pages.stream()
+				.flatMap(page -> page.getContent().stream())
+				.sorted(direction.isAscending() ? order : order.reversed())
+				.toList();
+		boolean more = rows.size() > pageSize || pages.stream().anyMatch(page -> page.getNextCursor() != null);
+		List<EmployeeView> content = rows.subList(0, Math.min(pageSize, rows.size()));
+		String nextCursor = more ? new EmployeeCursor(content.get(content.size() - 1).id(), direction).encode() : null;
+		return new EmployeePage(content, content.size(), nextCursor);
+	}
+
+	//one shard after the other on the calling thread, the consumer is not thread safe
+	@Override
+	public long exportEmployees(Consumer<Employee> consumer) {
+
+		long exported = 0;
+		for(EmployeeService shard : shards) {
+			exported += shard.exportEmployees(consumer);
+		}
+		return exported;
+	}
+
+	@Override
+	public Optional<Employee> getEmployeeById(long id) {
+		return shards.get(shardOfId(id)).getEmployeeById(id);
+	}
+
+	@Override
+	public Optional<Employee> getEmployeeByEmail(String email) {
+		return shards.get(shardOfEmail(email)).getEmployeeByEmail(email);
+	}
+
+	@Override
+	public List<EmployeeView> getEmployeesByIds(Collection<Long> ids) {
+
+		Map<Integer, List<Long>> idsByShard = ids.stream().distinct()
+				.collect(Collectors.groupingBy(this::shardOfId, LinkedHashMap::new, Collectors.toList()));
+		Map<Long, EmployeeView> employeesById = scatter(idsByShard.keySet(), shard -> shards.get(shard).getEmployeesByIds(idsByShard.get(shard)))
+				.values().stream()
+				.flatMap(List::stream)
+				.collect(Collectors.toMap(EmployeeView::id, Function.identity()));
+		return ids.stream().distinct().map(employeesById::get).filter(Objects::nonNull).toList();
+	}
+
+	@Override
+	public List<EmployeeView> getEmployeesByEmails(Collection<String> emails) {
+
+		Map<Integer, List<String>> emailsByShard = emails.stream().distinct()
+				.collect(Collectors.groupingBy(this::shardOfEmail, LinkedHashMap::new, Collectors.toList()));
+		return scatter(emailsByShard.keySet(), shard -> shards.get(shard).getEmployeesByEmails(emailsByShard.get(shard)))
+				.values().stream()
+				.flatMap(List::stream)
+				.toList();
+	}
+
+	@Override
+	public Optional<Long> getEmployeeVersion(long id) {
+		return shards.get(shardOfId(id)).getEmployeeVersion(id);
+	}
+
+	@Override
+	public Employee updateEmployee(Employee updatedEmployee) {
+
+		checkEmailStaysOnShard(updatedEmployee.getId(), updatedEmployee.getEmail());
+		return shards.get(shardOfId(updatedEmployee.getId())).updateEmployee(updatedEmployee);
+	}
+
+	@Override
+	public long patchEmployee(long id, Long expectedVersion, EmployeePatch patch) {
+
+		if(patch.getEmail() != null) {
+			checkEmailStaysOnShard(id, patch.getEmail());
+		}
+		return shards.get(shardOfId(id)).patchEmployee(id, expectedVersion, patch);
+	}
+
+	@Override
+	public void deleteEmployee(long id) {
+		shards.get(shardOfId(id)).deleteEmployee(id);
+	}
+
+	@Override
+	public int deleteEmployees(Collection<Long> ids) {
+
+		Map<Integer, List<Long>> idsByShard = ids.stream().distinct()
+				.collect(Collectors.groupingBy(this::shardOfId, LinkedHashMap::new, Collectors.toList()));
+		return scatter(idsByShard.keySet(), shard -> shards.get(shard).deleteEmployees(idsByShard.get(shard)))
+				.values().stream()
+				.mapToInt(Integer::intValue)
+				.sum();
+	}
+
+	//every shard numbers its own changes, there is no single sequence a client could resume from
+	@Override
+	public EmployeeChangePage getChanges(long since, int limit) {
+		throw new BadRequestException("The change feed is not available while employees are sharded");
+	}
+
+	private void checkEmailStaysOnShard(long id, String email) {
+
+		if(email != null && shardOfEmail(email) != shardOfId(id)) {
+			throw new BadRequestException("Email " + email + " belongs to another shard than employee " + id
+					+ ", create a new employee with it instead");
+		}
+	}
+
+	private List<Integer> allShards() {
+		return IntStream.range(0, shards.size()).boxed().toList();
+	}
+
+	//runs the call for each shard in parallel, a single shard runs on the calling thread
+	private <T> Map<Integer, T> scatter(Collection<Integer> shardIndexes, Function<Integer, T> call) {
+
+		Map<Integer, T> results = new LinkedHashMap<>();
+		if(shardIndexes.size() == 1) {
+			Integer shard = shardIndexes.iterator().next();
+			results.put(shard, call.apply(shard));
+			return results;
+		}
+		Map<Integer, CompletableFuture<T>> futures = new LinkedHashMap<>();
+		shardIndexes.forEach(shard -> futures.put(shard, CompletableFuture.supplyAsync(() -> call.apply(shard), executor)));
+		futures.forEach((shard, future) -> {
+			try {
+				results.put(shard, future.join());
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException cause ? cause : e;
+			}
+		});
+		return results;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.shah.employees.sharding;
+
+import java.util.Map;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * @author Shahrukh
+ *
+ * The pooled employees_seq generator, spread over the shards: every shard draws from its own
+ * sequence and turns value v into v * shardCount + shardIndex, so ids never collide and the shard
+ * holding an employee is its id modulo the shard count. Shard count and index come from the
+ * persistence unit's properties. Without them the count is 1, and ids are the plain sequence values.
+ */
+public class ShardedSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String SHARD_COUNT = "employees.sharding.shard-count";
+
+	public static final String SHARD_INDEX = "employees.sharding.shard-index";
+
+	private long shardCount;
+
+	private long shardIndex;
+
+	@Override
+	public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+
+		super.configure(type, parameters, serviceRegistry);
+		Map<String, Object> settings = serviceRegistry.requireService(ConfigurationService.class).getSettings();
+		shardCount = ConfigurationHelper.getInt(SHARD_COUNT, settings, 1);
+		shardIndex = ConfigurationHelper.getInt(SHARD_INDEX, settings, 0);
+		if(shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+			throw new MappingException("Invalid shard " + shardIndex + " of " + shardCount);
+		}
+	}
+
+	@Override
+	public Object generate(SharedSessionContractImplementor session, Object object) {
+		return ((Number) super.generate(session, object)).longValue() * shardCount + shardIndex;
+	}
+
+}
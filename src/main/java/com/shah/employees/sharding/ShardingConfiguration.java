@@ -0,0 +1,99 @@
+package com.shah.employees.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import com.shah.employees.routing.HikariPools;
+import com.shah.employees.service.EmployeeService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ * Sharded mode, on once employees.sharding.shard-urls lists at least one extra database. Shard 0 is
+ * the application's own spring.datasource database and EmployeeServiceImpl bean. Shards 1 to N-1 are
+ * the listed URLs, with the same credentials, Hikari settings and spring.jpa.* properties. Their
+ * schema follows spring.jpa.hibernate.ddl-auto, or Boot's default for the kind of database. The
+ * employeeServiceImpl bean is then replaced by a {@link ShardedEmployeeService} over all of them, so
+ * the caching service, controller and search index stay unchanged.
+ *
+ * Startup fails if a shard holds an employee whose id names another shard, like every row of a
+ * database that existed before sharding was turned on.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "employees.sharding.shard-urls")
+public class ShardingConfiguration {
+
+	public static final String SHARDED_SERVICE = "employeeServiceImpl";
+
+	@Bean
+	public HibernatePropertiesCustomizer shardZeroHibernateProperties(@Value("${employees.sharding.shard-urls}") List<String> shardUrls) {
+		return properties -> {
+			properties.put(ShardedSequenceGenerator.SHARD_COUNT, shardUrls.size() + 1);
+			properties.put(ShardedSequenceGenerator.SHARD_INDEX, 0);
+		};
+	}
+
+	@Bean
+	public EmployeeShards employeeShards(@Value("${employees.sharding.shard-urls}") List<String> shardUrls,
+										 DataSourceProperties dataSourceProperties, JpaProperties jpaProperties,
+										 HibernateProperties hibernateProperties, Environment environment,
+										 MeterRegistry meterRegistry) {
+
+		List<EmployeeShard> shards = new ArrayList<>();
+		for(int index = 1; index <= shardUrls.size(); index++) {
+			String name = "shard-" + index;
+			HikariDataSource dataSource = HikariPools.create(name, shardUrls.get(index - 1).trim(), dataSourceProperties, environment, meterRegistry);
+			String ddlAuto = EmbeddedDatabaseConnection.isEmbedded(dataSource) ? "create-drop" : "none";
+			Map<String, Object> properties = hibernateProperties.determineHibernateProperties(jpaProperties.getProperties(),
+					new HibernateSettings().ddlAuto(() -> ddlAuto));
+			properties.put(ShardedSequenceGenerator.SHARD_COUNT, shardUrls.size() + 1);
+			properties.put(ShardedSequenceGenerator.SHARD_INDEX, index);
+			shards.add(new EmployeeShard(name, dataSource, properties));
+			try {
+				EmployeeShard.checkPlacement(name, dataSource, shardUrls.size() + 1, index);
+			} catch (RuntimeException e) {
+				shards.forEach(EmployeeShard::close);
+				throw e;
+			}
+		}
+		return new EmployeeShards(shards);
+	}
+
+	//static, so replacing the service bean does not pull this configuration in early
+	@Bean
+	public static BeanPostProcessor shardedEmployeeServiceWrapper(ObjectProvider<EmployeeShards> employeeShards,
+																 ObjectProvider<DataSource> dataSource) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if(SHARDED_SERVICE.equals(beanName) && bean instanceof EmployeeService shardZero) {
+					EmployeeShards shards = employeeShards.getObject();
+					//the service bean is initialized, so shard 0's schema exists by now
+					EmployeeShard.checkPlacement("shard-0", dataSource.getObject(), shards.employeeServices().size() + 1, 0);
+					List<EmployeeService> services = new ArrayList<>();
+					services.add(shardZero);
+					services.addAll(shards.employeeServices());
+					return new ShardedEmployeeService(services, shards.executor());
+				}
+				return bean;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.shah.employees.sqltrace;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * @author Shahrukh
+ *
+ * Remembers which repository method the current thread is in, so a traced statement can be
+ * attributed to the call that issued it. The outermost repository call wins, a repository method
+ * calling another one is reported under the first.
+ */
+@Aspect
+public class RepositoryCallTracker {
+
+	static final String UNKNOWN = "none";
+
+	private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+	@Around("execution(public * com.shah.employees.repository.EmployeeRepository+.*(..))")
+	public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+
+		if(CURRENT.get() != null) {
+			return joinPoint.proceed();
+		}
+		CURRENT.set("EmployeeRepository." + joinPoint.getSignature().getName());
+		try {
+			return joinPoint.proceed();
+		} finally {
+			CURRENT.remove();
+		}
+	}
+
+	//statements issued outside any repository call, e.g. the flush at commit, report "none"
+	static String current() {
+
+		String caller = CURRENT.get();
+		return caller == null ? UNKNOWN : caller;
+	}
+
+}
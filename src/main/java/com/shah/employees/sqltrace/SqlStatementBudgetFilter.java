@@ -0,0 +1,55 @@
+package com.shah.employees.sqltrace;
+
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * @author Shahrukh
+ *
+ * Counts the statements each HTTP request runs on its own thread and warns when a request goes over
+ * the budget. Work handed to another thread, like the body of a streamed export, is not counted.
+ */
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+	public static final String STATEMENTS_PER_REQUEST = "employees.sql.statements.per.request";
+
+	private static final Logger log = LoggerFactory.getLogger(SqlTraceListener.LOGGER_NAME);
+
+	private final int budget;
+
+	private final MeterRegistry meterRegistry;
+
+	public SqlStatementBudgetFilter(int budget, MeterRegistry meterRegistry) {
+		this.budget = budget;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		try(SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+			filterChain.doFilter(request, response);
+			String uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern ? pattern : "UNKNOWN";
+			DistributionSummary.builder(STATEMENTS_PER_REQUEST)
+					.description("SQL statements run by one HTTP request")
+					.tag("method", request.getMethod())
+					.tag("uri", uri)
+					.register(meterRegistry)
+					.record(scope.count());
+			if(scope.count() > budget) {
+				log.warn("{} {} ran {} SQL statements, budget is {}", request.getMethod(), uri, scope.count(), budget);
+			}
+		}
+	}
+
+}
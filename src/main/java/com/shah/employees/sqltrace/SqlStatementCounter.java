@@ -0,0 +1,60 @@
+package com.shah.employees.sqltrace;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * @author Shahrukh
+ *
+ * Counts the SQL statements executed on the current thread while a scope is open. Scopes nest,
+ * every open scope on the thread sees every statement. Used per HTTP request by
+ * {@link SqlStatementBudgetFilter} and directly by tests to catch N+1 queries.
+ */
+public final class SqlStatementCounter {
+
+	private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private SqlStatementCounter() {
+	}
+
+	public static Scope open() {
+
+		Scope scope = new Scope();
+		SCOPES.get().push(scope);
+		return scope;
+	}
+
+	//called once per statement execution, a JDBC batch counts as one round trip
+	static void increment() {
+
+		Deque<Scope> scopes = SCOPES.get();
+		if(scopes.isEmpty()) {
+			SCOPES.remove();
+			return;
+		}
+		scopes.forEach(scope -> scope.count++);
+	}
+
+	public static final class Scope implements AutoCloseable {
+
+		private int count;
+
+		private Scope() {
+		}
+
+		public int count() {
+			return count;
+		}
+
+		@Override
+		public void close() {
+
+			Deque<Scope> scopes = SCOPES.get();
+			scopes.remove(this);
+			if(scopes.isEmpty()) {
+				SCOPES.remove();
+			}
+		}
+	}
+
+}
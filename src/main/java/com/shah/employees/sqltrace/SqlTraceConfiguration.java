@@ -0,0 +1,67 @@
+package com.shah.employees.sqltrace;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * @author Shahrukh
+ *
+ * Wraps the application DataSource in a datasource-proxy that reports every statement to
+ * {@link SqlTraceListener}, and counts statements per HTTP request. Repository tests can
+ * {@code @Import} this class to count statements with {@link SqlStatementCounter}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "employees.sql-trace.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfiguration {
+
+	@Bean
+	public SqlTraceListener sqlTraceListener(@Value("${employees.sql-trace.slow-threshold:100ms}") Duration slowThreshold,
+											 @Value("${employees.sql-trace.sample-rate:0}") double sampleRate,
+											 ObjectProvider<MeterRegistry> meterRegistry) {
+		return new SqlTraceListener(slowThreshold, sampleRate, meterRegistry.getIfAvailable());
+	}
+
+	//static, so wrapping the DataSource does not pull this configuration in early
+	@Bean
+	public static BeanPostProcessor sqlTraceDataSourceWrapper(ObjectProvider<SqlTraceListener> listener) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if(bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+					return ProxyDataSourceBuilder.create(dataSource)
+							.name(beanName)
+							.listener(listener.getObject())
+							.build();
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public RepositoryCallTracker repositoryCallTracker() {
+		return new RepositoryCallTracker();
+	}
+
+	@Bean
+	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+	public FilterRegistrationBean<SqlStatementBudgetFilter> sqlStatementBudgetFilter(@Value("${employees.sql-trace.request-budget:20}") int budget,
+																					  MeterRegistry meterRegistry) {
+		FilterRegistrationBean<SqlStatementBudgetFilter> registration = new FilterRegistrationBean<>(new SqlStatementBudgetFilter(budget, meterRegistry));
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+		return registration;
+	}
+
+}
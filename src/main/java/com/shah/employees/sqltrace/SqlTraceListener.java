@@ -0,0 +1,82 @@
+package com.shah.employees.sqltrace;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * @author Shahrukh
+ *
+ * Times every statement on the proxied DataSource and attributes it to the repository method that
+ * issued it. Only statements slower than the threshold, plus a sampled fraction of the rest, are
+ * logged, so the request thread no longer formats and prints every statement as show-sql did.
+ */
+public class SqlTraceListener implements QueryExecutionListener {
+
+	public static final String LOGGER_NAME = "com.shah.employees.sql";
+
+	public static final String STATEMENT_TIMER = "employees.sql.statements";
+
+	private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+	private static final String START = "sqltrace.start";
+
+	private final long slowThresholdNanos;
+
+	private final double sampleRate;
+
+	//null when metrics are not available, e.g. in a @DataJpaTest slice
+	private final MeterRegistry meterRegistry;
+
+	public SqlTraceListener(Duration slowThreshold, double sampleRate, MeterRegistry meterRegistry) {
+		this.slowThresholdNanos = slowThreshold.toNanos();
+		this.sampleRate = sampleRate;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+
+		execution.addCustomValue(START, System.nanoTime());
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+
+		long elapsed = System.nanoTime() - execution.getCustomValue(START, Long.class);
+		String caller = RepositoryCallTracker.current();
+		SqlStatementCounter.increment();
+		if(meterRegistry != null) {
+			Timer.builder(STATEMENT_TIMER)
+					.description("SQL statement executions by the repository method that issued them")
+					.tag("caller", caller)
+					.tag("success", String.valueOf(execution.isSuccess()))
+					.register(meterRegistry)
+					.record(elapsed, TimeUnit.NANOSECONDS);
+		}
+		if(elapsed >= slowThresholdNanos) {
+			log.warn("Slow SQL {} ms in {}{}: {}", TimeUnit.NANOSECONDS.toMillis(elapsed), caller, batch(execution), sql(queries));
+		} else if(sampleRate > 0 && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			log.info("Sampled SQL {} us in {}{}: {}", TimeUnit.NANOSECONDS.toMicros(elapsed), caller, batch(execution), sql(queries));
+		}
+	}
+
+	private static String batch(ExecutionInfo execution) {
+		return execution.isBatch() ? " (batch of " + execution.getBatchSize() + ")" : "";
+	}
+
+	//statement text only, bound parameter values may hold personal data and are never logged
+	private static String sql(List<QueryInfo> queries) {
+		return queries.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+	}
+
+}
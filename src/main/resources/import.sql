@@ -0,0 +1 @@
+INSERT INTO employee_change_sequence (id, last_sequence) VALUES (1, 0);
@@ -0,0 +1,87 @@
+package com.shah.employees.bulkhead;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.shah.employees.exception.BulkheadFullException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class DatabaseBulkheadTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private DatabaseBulkhead databaseBulkhead;
+
+	@BeforeEach
+	public void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		databaseBulkhead = new DatabaseBulkhead(1, Duration.ofMillis(50), meterRegistry);
+	}
+
+	//JUnit test for a call within the bulkhead limit
+	@DisplayName("JUnit test for a call admitted by the bulkhead")
+	@Test
+	public void givenFreePermit_whenExecute_thenProceedAndReleasePermit() throws Throwable {
+		//given- precondition or setup
+		ProceedingJoinPoint joinPoint = Mockito.mock(ProceedingJoinPoint.class);
+		given(joinPoint.proceed()).willReturn("done");
+
+		//when- action or behaviour that we are testing
+		Object first = databaseBulkhead.execute(joinPoint);
+		Object second = databaseBulkhead.execute(joinPoint);
+
+		//then- verify the output
+		assertThat(first).isEqualTo("done");
+		assertThat(second).isEqualTo("done");
+		assertThat(meterRegistry.get("employees.bulkhead.available").gauge().value()).isEqualTo(1.0);
+	}
+
+	//JUnit test for a call over the bulkhead limit
+	@DisplayName("JUnit test for a call rejected after max-wait when all permits are held")
+	@Test
+	public void givenAllPermitsHeld_whenExecute_thenRejectAfterMaxWait() throws Throwable {
+		//given- precondition or setup
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ProceedingJoinPoint slowCall = Mockito.mock(ProceedingJoinPoint.class);
+		given(slowCall.proceed()).willAnswer(invocation -> {
+			holding.countDown();
+			return release.await(5, TimeUnit.SECONDS);
+		});
+		CompletableFuture<Object> inFlight = CompletableFuture.supplyAsync(() -> {
+			try {
+				return databaseBulkhead.execute(slowCall);
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		holding.await(5, TimeUnit.SECONDS);
+
+		//when- action or behaviour that we are testing
+		ProceedingJoinPoint joinPoint = Mockito.mock(ProceedingJoinPoint.class);
+		assertThrows(BulkheadFullException.class, () -> databaseBulkhead.execute(joinPoint));
+		release.countDown();
+
+		//then- verify the output
+		assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo(true);
+		assertThat(meterRegistry.get("employees.bulkhead.rejected").counter().count()).isEqualTo(1.0);
+		Mockito.verify(joinPoint, Mockito.never()).proceed();
+	}
+
+}
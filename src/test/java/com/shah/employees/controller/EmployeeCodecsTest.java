@@ -0,0 +1,83 @@
+package com.shah.employees.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.model.Employee;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeCodecsTest {
+
+	private EmployeeCodecs employeeCodecs;
+
+	@BeforeEach
+	public void setup() {
+		employeeCodecs = new EmployeeCodecs(Jackson2ObjectMapperBuilder.json().build());
+	}
+
+	//JUnit test for Accept header negotiation
+	@DisplayName("JUnit test for selecting the preferred encoding with JSON as the default")
+	@Test
+	public void givenAcceptHeaders_whenSelect_thenReturnPreferredSupportedEncoding() throws Exception {
+		//given- precondition or setup
+
+		//when- action or behaviour that we are testing
+		MediaType none = employeeCodecs.select(request(null));
+		MediaType any = employeeCodecs.select(request("*/*"));
+		MediaType cbor = employeeCodecs.select(request("application/json;q=0.5, application/cbor"));
+		MediaType smile = employeeCodecs.select(request("text/html, application/x-jackson-smile;q=0.8"));
+
+		//then- verify the output
+		assertThat(none).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(any).isEqualTo(MediaType.APPLICATION_JSON);
+		assertThat(cbor).isEqualTo(MediaType.APPLICATION_CBOR);
+		assertThat(smile).isEqualTo(EmployeeCodecs.APPLICATION_SMILE);
+	}
+
+	//JUnit test for binary round trips
+	@DisplayName("JUnit test for employees surviving a round trip through every encoding")
+	@Test
+	public void givenEmployee_whenEncodeAndDecode_thenReturnEqualEmployee() throws Exception {
+		//given- precondition or setup
+		Employee employee = new Employee(7L, "Sachin", "Tendulkar", "master.blaster@bcci.tv", 3L);
+		byte[] json = employeeCodecs.mapperFor(MediaType.APPLICATION_JSON).writeValueAsBytes(employee);
+
+		for(MediaType mediaType : new MediaType[] {MediaType.APPLICATION_CBOR, EmployeeCodecs.APPLICATION_SMILE}) {
+			ObjectMapper mapper = employeeCodecs.mapperFor(mediaType);
+
+			//when- action or behaviour that we are testing
+			byte[] encoded = mapper.writeValueAsBytes(employee);
+			Employee decoded = mapper.readValue(encoded, Employee.class);
+
+			//then- verify the output
+			assertThat(encoded.length).isLessThan(json.length);
+			assertThat(decoded).usingRecursiveComparison().isEqualTo(employee);
+		}
+		assertThat(employeeCodecs.mapperFor(MediaType.APPLICATION_NDJSON)).isSameAs(employeeCodecs.mapperFor(MediaType.APPLICATION_JSON));
+		assertThrows(BadRequestException.class, () -> employeeCodecs.mapperFor(MediaType.TEXT_PLAIN));
+	}
+
+	private static ServletWebRequest request(String accept) {
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		if(accept != null) {
+			request.addHeader(HttpHeaders.ACCEPT, accept);
+		}
+		return new ServletWebRequest(request);
+	}
+
+}
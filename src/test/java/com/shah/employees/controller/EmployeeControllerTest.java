@@ -1,10 +1,162 @@
 package com.shah.employees.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.search.EmployeeSearchIndex;
+import com.shah.employees.service.EmployeeBatchImporter;
+import com.shah.employees.service.EmployeeCursor;
+import com.shah.employees.service.EmployeeService;
+
 /**
  * @author Shahrukh
  *
  */
 public class EmployeeControllerTest {
 
-	
+	private static final String BODY = "{\"firstName\":\"Sourav\",\"lastName\":\"Dada\",\"email\":\"dada@bcci.tv\"}";
+
+	private EmployeeService employeeService;
+
+	private EmployeeChangeStream employeeChangeStream;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	public void setup() {
+		employeeService = Mockito.mock(EmployeeService.class);
+		employeeChangeStream = Mockito.mock(EmployeeChangeStream.class);
+		EmployeeController controller = new EmployeeController(employeeService, Mockito.mock(EmployeeBatchImporter.class),
+				Mockito.mock(EmployeeResponseCache.class), Mockito.mock(EmployeeSearchIndex.class), new ObjectMapper(),
+				Mockito.mock(EmployeeCodecs.class), employeeChangeStream);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+		given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> Optional.of(Employee.builder()
+				.id(1L)
+				.firstName("Sourav")
+				.lastName("Ganguly")
+				.email("dada@bcci.tv")
+				.version(3L)
+				.build()));
+	}
+
+	//JUnit test for a PUT racing with another write
+	@DisplayName("JUnit test for updateEmployee answering 409 when the row changed between read and update")
+	@Test
+	public void givenConcurrentWrite_whenPutEmployee_thenReturnConflict() throws Exception {
+		//given- precondition or setup
+		given(employeeService.updateEmployee(any())).willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		mockMvc.perform(put("/api/employees/1").contentType(MediaType.APPLICATION_JSON).content(BODY))
+				.andExpect(status().isConflict());
+	}
+
+	//JUnit test for a conditional PUT racing with another write
+	@DisplayName("JUnit test for updateEmployee answering 412 when If-Match was sent and the row changed before the update")
+	@Test
+	public void givenIfMatchAndConcurrentWrite_whenPutEmployee_thenReturnPreconditionFailed() throws Exception {
+		//given- precondition or setup
+		given(employeeService.updateEmployee(any())).willThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1L));
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		mockMvc.perform(put("/api/employees/1").header(HttpHeaders.IF_MATCH, "\"3\"").contentType(MediaType.APPLICATION_JSON).content(BODY))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	//JUnit test for a conditional PUT with an outdated version
+	@DisplayName("JUnit test for updateEmployee answering 412 without updating when If-Match names an older version")
+	@Test
+	public void givenStaleIfMatch_whenPutEmployee_thenReturnPreconditionFailed() throws Exception {
+		//given- precondition or setup
+		String staleEtag = "\"2\"";
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		mockMvc.perform(put("/api/employees/1").header(HttpHeaders.IF_MATCH, staleEtag).contentType(MediaType.APPLICATION_JSON).content(BODY))
+				.andExpect(status().isPreconditionFailed());
+		Mockito.verify(employeeService, Mockito.never()).updateEmployee(any());
+	}
+
+	//JUnit test for a conditional PUT with the current version
+	@DisplayName("JUnit test for updateEmployee returning the new version ETag when If-Match names the current version")
+	@Test
+	public void givenCurrentIfMatch_whenPutEmployee_thenReturnUpdatedEmployee() throws Exception {
+		//given- precondition or setup
+		given(employeeService.updateEmployee(any())).willAnswer(invocation -> {
+			Employee employee = invocation.getArgument(0);
+			return employee.toBuilder().version(employee.getVersion() + 1).build();
+		});
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		mockMvc.perform(put("/api/employees/1").header(HttpHeaders.IF_MATCH, "\"3\"").contentType(MediaType.APPLICATION_JSON).content(BODY))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+	}
+
+	//JUnit test for a conditional PUT with a weak ETag
+	@DisplayName("JUnit test for updateEmployee answering 412 when If-Match carries a weak ETag")
+	@Test
+	public void givenWeakIfMatch_whenPutEmployee_thenReturnPreconditionFailed() throws Exception {
+		//given- precondition or setup
+		String weakEtag = "W/\"3\"";
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		mockMvc.perform(put("/api/employees/1").header(HttpHeaders.IF_MATCH, weakEtag).contentType(MediaType.APPLICATION_JSON).content(BODY))
+				.andExpect(status().isPreconditionFailed());
+		Mockito.verify(employeeService, Mockito.never()).updateEmployee(any());
+	}
+
+	//JUnit test for a listing cursor sent with the opposite sort
+	@DisplayName("JUnit test for getAllEmployees answering 400 when the sort conflicts with the cursor's order")
+	@Test
+	public void givenDescendingCursor_whenListWithAscendingSort_thenReturnBadRequest() throws Exception {
+		//given- precondition or setup
+		String cursor = new EmployeeCursor(40L, Sort.Direction.DESC).encode();
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		mockMvc.perform(get("/api/employees").param("cursor", cursor).param("sort", "id,asc"))
+				.andExpect(status().isBadRequest());
+		Mockito.verify(employeeService, Mockito.never()).getEmployees(any(), Mockito.anyInt(), any());
+	}
+
+	//JUnit test for the change stream while sharding is on
+	@DisplayName("JUnit test for streamChanges answering 400 without subscribing when the feed is not available")
+	@Test
+	public void givenFeedNotAvailable_whenStreamChanges_thenReturnBadRequest() throws Exception {
+		//given- precondition or setup
+		given(employeeService.getChanges(7L, 1)).willThrow(new BadRequestException("The change feed is not available while employees are sharded"));
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		mockMvc.perform(get("/api/employees/changes").param("since", "7").accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(status().isBadRequest());
+		Mockito.verify(employeeChangeStream, Mockito.never()).subscribe(anyLong());
+	}
+
 }
@@ -0,0 +1,74 @@
+package com.shah.employees.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeView;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeJsonModuleTest {
+
+	private ObjectMapper beanMapper;
+	private ObjectMapper moduleMapper;
+
+	@BeforeEach
+	public void setup() {
+		beanMapper = Jackson2ObjectMapperBuilder.json().build();
+		moduleMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new EmployeeJsonModule()).build();
+	}
+
+	//JUnit test for streaming serializers
+	@DisplayName("JUnit test for the streaming serializers writing the same JSON as the bean serializers")
+	@Test
+	public void givenEmployees_whenSerialize_thenMatchBeanSerializerOutput() throws Exception {
+		//given- precondition or setup
+		List<Employee> employees = List.of(
+				new Employee(1L, "Monica", "Geller", "monica@central-perk.com", 2L),
+				new Employee(2L, "Ross \"Dino\"", null, "ross@museum.org", 0L));
+		EmployeeView view = EmployeeView.of(employees.get(0));
+
+		//when- action or behaviour that we are testing
+		String employeesJson = moduleMapper.writeValueAsString(employees);
+		String viewJson = moduleMapper.writeValueAsString(view);
+
+		//then- verify the output
+		assertThat(employeesJson).isEqualTo(beanMapper.writeValueAsString(employees));
+		assertThat(viewJson).isEqualTo(beanMapper.writeValueAsString(view));
+	}
+
+	//JUnit test for streaming deserializer
+	@DisplayName("JUnit test for the streaming deserializer accepting any field order, unknown fields and coercions")
+	@Test
+	public void givenJson_whenDeserialize_thenReturnEmployees() throws Exception {
+		//given- precondition or setup
+		String json = "[{\"email\":\"rachel@ralph-lauren.com\",\"nickname\":{\"a\":[1]},\"id\":\"3\",\"firstName\":\"Rachel\",\"lastName\":\"Green\",\"version\":null},"
+				+ "{\"firstName\":\"Phoebe\",\"lastName\":\"Buffay\",\"email\":\"phoebe@smelly-cat.com\"}]";
+
+		//when- action or behaviour that we are testing
+		List<Employee> employees = moduleMapper.readValue(json, new TypeReference<List<Employee>>() {});
+		EmployeeView view = moduleMapper.readValue(moduleMapper.writeValueAsString(employees.get(0)), EmployeeView.class);
+
+		//then- verify the output
+		assertThat(employees).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyElementsOf(beanMapper.readValue(json, new TypeReference<List<Employee>>() {}));
+		assertThat(view).isEqualTo(new EmployeeView(3L, "Rachel", "Green", "rachel@ralph-lauren.com", 0L));
+		assertThrows(UnrecognizedPropertyException.class, () -> moduleMapper.readerFor(Employee.class)
+				.with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).readValue("{\"nickname\":\"Pheebs\"}"));
+	}
+
+}
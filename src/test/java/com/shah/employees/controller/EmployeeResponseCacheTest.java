@@ -0,0 +1,81 @@
+package com.shah.employees.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+
+import com.shah.employees.controller.EmployeeResponseCache.EncodedResponse;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.service.EmployeeChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeResponseCacheTest {
+
+	private EmployeeResponseCache employeeResponseCache;
+	private AtomicInteger renders;
+
+	@BeforeEach
+	public void setup() {
+		employeeResponseCache = new EmployeeResponseCache(1024 * 1024, Duration.ofMinutes(1), new SimpleMeterRegistry());
+		renders = new AtomicInteger();
+	}
+
+	//JUnit test for cached employee bytes
+	@DisplayName("JUnit test for encoded employee served from cache until the employee changes")
+	@Test
+	public void givenCachedEmployee_whenEmployeeChanged_thenRenderAgain() {
+		//given- precondition or setup
+		employeeResponseCache.getEmployee(1L, MediaType.APPLICATION_JSON, this::renderEmployee);
+		employeeResponseCache.getEmployee(1L, MediaType.APPLICATION_JSON, this::renderEmployee);
+
+		//when- action or behaviour that we are testing
+		employeeResponseCache.onEmployeeChanged(EmployeeChangedEvent.patched(1L, EmployeePatch.builder().lastName("Dada").build(), 1L));
+		EncodedResponse peeked = employeeResponseCache.peekEmployee(1L, MediaType.APPLICATION_JSON);
+		EncodedResponse response = employeeResponseCache.getEmployee(1L, MediaType.APPLICATION_JSON, this::renderEmployee);
+
+		//then- verify the output
+		assertThat(peeked).isNull();
+		assertThat(response.etag()).isEqualTo("W/\"2\"");
+		assertThat(renders.get()).isEqualTo(2);
+	}
+
+	//JUnit test for cached list pages
+	@DisplayName("JUnit test for encoded list page retired by a change to any employee")
+	@Test
+	public void givenCachedPage_whenAnyEmployeeChanged_thenRenderPageAgain() {
+		//given- precondition or setup
+		employeeResponseCache.getPage(null, 20, Sort.Direction.ASC, MediaType.APPLICATION_JSON, this::render);
+		employeeResponseCache.getPage(null, 20, Sort.Direction.ASC, MediaType.APPLICATION_JSON, this::render);
+
+		//when- action or behaviour that we are testing
+		employeeResponseCache.onEmployeeChanged(EmployeeChangedEvent.deleted(42L));
+		EncodedResponse page = employeeResponseCache.getPage(null, 20, Sort.Direction.ASC, MediaType.APPLICATION_JSON, this::render);
+
+		//then- verify the output
+		assertThat(renders.get()).isEqualTo(2);
+		assertThat(new String(page.body(), StandardCharsets.UTF_8)).isEqualTo("render-2");
+		assertThat(page.etag()).startsWith("W/\"");
+	}
+
+	private EncodedResponse renderEmployee() {
+		return new EncodedResponse(render(), "W/\"" + renders.get() + "\"");
+	}
+
+	private byte[] render() {
+		return ("render-" + renders.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+	}
+
+}
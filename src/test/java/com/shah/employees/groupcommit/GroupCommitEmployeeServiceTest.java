@@ -0,0 +1,113 @@
+package com.shah.employees.groupcommit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.shah.employees.exception.DuplicateEmailException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.service.EmployeeService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:group-commit;DB_CLOSE_DELAY=-1",
+		"employees.group-commit.enabled=true"
+})
+@DirtiesContext
+public class GroupCommitEmployeeServiceTest {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	//JUnit test for concurrent creates through the group-commit writer
+	@DisplayName("JUnit test for concurrent creates committed through the writer, each caller getting its own employee")
+	@Test
+	public void givenConcurrentCreates_whenSaveEmployee_thenEveryCallerGetsItsEmployee() throws Exception {
+		//given- precondition or setup
+		double committedBefore = meterRegistry.summary("employees.group-commit.batch.size").totalAmount();
+		List<Callable<Employee>> creates = IntStream.range(0, 64)
+				.<Callable<Employee>>mapToObj(n -> () -> employeeService.saveEmployee(employee("burst-" + n + "@group.io")))
+				.toList();
+
+		//when- action or behaviour that we are testing
+		List<Employee> saved = run(creates).stream().map(Future::resultNow).toList();
+
+		//then- verify the output
+		assertThat(saved).extracting(Employee::getEmail)
+				.containsExactlyElementsOf(IntStream.range(0, 64).mapToObj(n -> "burst-" + n + "@group.io").toList());
+		assertThat(saved).allMatch(employee -> employee.getId() > 0).extracting(Employee::getId).doesNotHaveDuplicates();
+		assertThat(employeeService.getEmployeeByEmail("burst-42@group.io")).isPresent();
+		assertThat(meterRegistry.summary("employees.group-commit.batch.size").totalAmount() - committedBefore).isEqualTo(64);
+	}
+
+	//JUnit test for duplicate emails inside a burst
+	@DisplayName("JUnit test for concurrent creates of one email, exactly one wins and the others get a conflict")
+	@Test
+	public void givenConcurrentCreatesOfOneEmail_whenSaveEmployee_thenOneCreatedOthersConflict() throws Exception {
+		//given- precondition or setup
+		List<Callable<Employee>> creates = IntStream.range(0, 16)
+				.<Callable<Employee>>mapToObj(n -> () -> employeeService.saveEmployee(employee("same@group.io")))
+				.toList();
+
+		//when- action or behaviour that we are testing
+		List<Future<Employee>> results = run(creates);
+
+		//then- verify the output
+		long created = results.stream().filter(result -> result.state() == Future.State.SUCCESS).count();
+		assertThat(created).isEqualTo(1);
+		assertThat(results).filteredOn(result -> result.state() == Future.State.FAILED)
+				.allMatch(result -> result.exceptionNow() instanceof DuplicateEmailException);
+	}
+
+	//JUnit test for updates through the group-commit writer
+	@DisplayName("JUnit test for an update committed through the writer and a stale one rejected")
+	@Test
+	public void givenSavedEmployee_whenUpdateEmployee_thenNewVersionAndStaleUpdateRejected() {
+		//given- precondition or setup
+		Employee saved = employeeService.saveEmployee(employee("update@group.io"));
+		Employee stale = saved.toBuilder().build();
+		saved.setFirstName("Updated");
+
+		//when- action or behaviour that we are testing
+		Employee updated = employeeService.updateEmployee(saved);
+
+		//then- verify the output
+		assertThat(updated.getFirstName()).isEqualTo("Updated");
+		assertThat(updated.getVersion()).isEqualTo(stale.getVersion() + 1);
+		stale.setLastName("Stale");
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> employeeService.updateEmployee(stale));
+	}
+
+	private static List<Future<Employee>> run(List<Callable<Employee>> calls) throws InterruptedException {
+
+		try(ExecutorService executor = Executors.newFixedThreadPool(16)) {
+			return executor.invokeAll(calls);
+		}
+	}
+
+	private static Employee employee(String email) {
+		return Employee.builder().firstName("Group").lastName("Commit").email(email).build();
+	}
+
+}
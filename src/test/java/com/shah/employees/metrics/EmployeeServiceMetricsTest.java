@@ -0,0 +1,81 @@
+package com.shah.employees.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+
+import java.util.List;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.shah.employees.exception.DuplicateEmailException;
+import com.shah.employees.model.EmployeeBatchResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeServiceMetricsTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private EmployeeServiceMetrics employeeServiceMetrics;
+	private ProceedingJoinPoint joinPoint;
+
+	@BeforeEach
+	public void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		employeeServiceMetrics = new EmployeeServiceMetrics(meterRegistry);
+		joinPoint = Mockito.mock(ProceedingJoinPoint.class);
+	}
+
+	//JUnit test for a duplicate-email rejection
+	@DisplayName("JUnit test for a rejected save timed with its exception and counted as duplicate email")
+	@Test
+	public void givenDuplicateEmail_whenRecord_thenTimeAndCountRejection() throws Throwable {
+		//given- precondition or setup
+		givenMethod("saveEmployee");
+		given(joinPoint.proceed()).willThrow(new DuplicateEmailException("Employee already exist with given email: dada@bcci.tv"));
+
+		//when- action or behaviour that we are testing
+		assertThrows(DuplicateEmailException.class, () -> employeeServiceMetrics.record(joinPoint));
+
+		//then- verify the output
+		assertThat(meterRegistry.get(EmployeeServiceMetrics.SERVICE_TIMER)
+				.tag("method", "saveEmployee").tag("exception", "DuplicateEmailException").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get(EmployeeServiceMetrics.DUPLICATE_EMAIL_COUNTER)
+				.tag("method", "saveEmployee").counter().count()).isEqualTo(1.0);
+	}
+
+	//JUnit test for a bulk import
+	@DisplayName("JUnit test for a bulk import counting created and rejected rows")
+	@Test
+	public void givenBatchResult_whenRecord_thenCountRowsByOutcome() throws Throwable {
+		//given- precondition or setup
+		givenMethod("saveEmployees");
+		given(joinPoint.proceed()).willReturn(new EmployeeBatchResult(3, 2,
+				List.of(new EmployeeBatchResult.RowError(1, "dada@bcci.tv", "Employee already exist with given email: dada@bcci.tv"))));
+
+		//when- action or behaviour that we are testing
+		employeeServiceMetrics.record(joinPoint);
+
+		//then- verify the output
+		assertThat(meterRegistry.get(EmployeeServiceMetrics.SERVICE_TIMER)
+				.tag("method", "saveEmployees").tag("exception", "none").timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get(EmployeeServiceMetrics.BATCH_ROWS_COUNTER).tag("outcome", "created").counter().count()).isEqualTo(2.0);
+		assertThat(meterRegistry.get(EmployeeServiceMetrics.BATCH_ROWS_COUNTER).tag("outcome", "rejected").counter().count()).isEqualTo(1.0);
+	}
+
+	private void givenMethod(String name) {
+		Signature signature = Mockito.mock(Signature.class);
+		given(signature.getName()).willReturn(name);
+		given(joinPoint.getSignature()).willReturn(signature);
+	}
+
+}
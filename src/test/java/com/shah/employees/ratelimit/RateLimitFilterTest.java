@@ -0,0 +1,120 @@
+package com.shah.employees.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class RateLimitFilterTest {
+
+	private AtomicLong clock;
+	private MeterRegistry meterRegistry;
+	private RateLimitFilter rateLimitFilter;
+
+	@BeforeEach
+	public void setup() {
+		clock = new AtomicLong();
+		meterRegistry = new SimpleMeterRegistry();
+		ClientRateLimiter limiter = new ClientRateLimiter(Duration.ofMinutes(10), 1000, clock::get);
+		rateLimitFilter = new RateLimitFilter(limiter, Map.of(
+				RateLimitFilter.READ, RateLimit.of(RateLimitFilter.READ, 10, 3),
+				RateLimitFilter.WRITE, RateLimit.of(RateLimitFilter.WRITE, 1, 1),
+				RateLimitFilter.LIST, RateLimit.of(RateLimitFilter.LIST, 1, 1)), "X-Api-Key",
+				Set.of("batch-client", "interactive-client"), meterRegistry);
+	}
+
+	//JUnit test for shedding requests over the budget
+	@DisplayName("JUnit test for requests beyond the burst shed with 429 and Retry-After, and admitted again after the refill")
+	@Test
+	public void givenBurstSpent_whenRequest_thenTooManyRequestsUntilRefill() throws Exception {
+		//given- precondition or setup
+		for(int i = 0; i < 3; i++) {
+			assertThat(send("GET", "/api/employees/1", "batch-client").getStatus()).isEqualTo(200);
+		}
+
+		//when- action or behaviour that we are testing
+		MockHttpServletResponse shed = send("GET", "/api/employees/1", "batch-client");
+		MockHttpServletResponse otherClient = send("GET", "/api/employees/1", "interactive-client");
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+		MockHttpServletResponse refilled = send("GET", "/api/employees/1", "batch-client");
+
+		//then- verify the output
+		assertThat(shed.getStatus()).isEqualTo(429);
+		assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(otherClient.getStatus()).isEqualTo(200);
+		assertThat(refilled.getStatus()).isEqualTo(200);
+		assertThat(meterRegistry.get("employees.rate-limit.requests").tags("budget", "read", "outcome", "rejected").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("employees.rate-limit.requests").tags("budget", "read", "outcome", "admitted").counter().count()).isEqualTo(5);
+	}
+
+	//JUnit test for separate budgets
+	@DisplayName("JUnit test for reads, writes and listings charged to separate budgets")
+	@Test
+	public void givenWriteBudgetSpent_whenReadOrList_thenStillAdmitted() throws Exception {
+		//given- precondition or setup
+		send("POST", "/api/employees", "batch-client");
+
+		//when- action or behaviour that we are testing
+		MockHttpServletResponse write = send("DELETE", "/api/employees/1", "batch-client");
+		MockHttpServletResponse byEmail = send("POST", "/api/employees/by-email", "batch-client");
+		MockHttpServletResponse list = send("GET", "/api/employees", "batch-client");
+		MockHttpServletResponse export = send("GET", "/api/employees/export", "batch-client");
+
+		//then- verify the output
+		assertThat(write.getStatus()).isEqualTo(429);
+		assertThat(write.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(byEmail.getStatus()).isEqualTo(200);
+		assertThat(list.getStatus()).isEqualTo(200);
+		assertThat(export.getStatus()).isEqualTo(429);
+	}
+
+	//JUnit test for API keys that were not configured
+	@DisplayName("JUnit test for unknown API keys ignored, so a client cannot buy a fresh budget by rotating keys")
+	@Test
+	public void givenUnknownApiKeys_whenRequest_thenLimitedByRemoteAddress() throws Exception {
+		//given- precondition or setup
+		for(int i = 0; i < 3; i++) {
+			assertThat(send("GET", "/api/employees/1", "made-up-" + i).getStatus()).isEqualTo(200);
+		}
+
+		//when- action or behaviour that we are testing
+		MockHttpServletResponse rotated = send("GET", "/api/employees/1", "made-up-3");
+		MockHttpServletResponse noKey = send("GET", "/api/employees/1", null);
+		MockHttpServletResponse knownKey = send("GET", "/api/employees/1", "batch-client");
+
+		//then- verify the output
+		assertThat(rotated.getStatus()).isEqualTo(429);
+		assertThat(noKey.getStatus()).isEqualTo(429);
+		assertThat(knownKey.getStatus()).isEqualTo(200);
+	}
+
+	private MockHttpServletResponse send(String method, String path, String apiKey) throws Exception {
+
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		if(apiKey != null) {
+			request.addHeader("X-Api-Key", apiKey);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		rateLimitFilter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+}
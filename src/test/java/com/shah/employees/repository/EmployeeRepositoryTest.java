@@ -2,20 +2,26 @@ package com.shah.employees.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
+import static com.shah.employees.sqltrace.SqlStatementAssertions.assertMaxStatements;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.sqltrace.SqlTraceConfiguration;
 
 /**
  * @author Shahrukh
  *
  */
 @DataJpaTest
+@Import(SqlTraceConfiguration.class)
 public class EmployeeRepositoryTest {
 
 	@Autowired
@@ -166,10 +172,33 @@ public class EmployeeRepositoryTest {
 		String searchLastName = "Snow";
 
 		//when- action or behaviour that we are testing
-		Employee savedEmployee = employeeRepository.findByJPQLIndexedParams(searchFirstName, searchLastName);
+		List<Employee> savedEmployees = employeeRepository.findByJPQLIndexedParams(searchFirstName, searchLastName);
 
 		//then- verify the output
-		assertThat(savedEmployee).isNotNull();
+		assertThat(savedEmployees).hasSize(1);
+	}
+
+	//JUnit test for a JPQL name lookup that matches several employees
+	@DisplayName("JUnit test for custom JPQL query returning every employee with a shared name in id order")
+	@Test
+	public void givenDuplicateNames_whenFindByJPQLIndexedParams_thenReturnAllInIdOrder() {
+		//given- precondition or setup
+		Employee first = employeeRepository.save(Employee.builder()
+				.firstName("Robb")
+				.lastName("Stark")
+				.email("young.wolf@gmail.com")
+				.build());
+		Employee second = employeeRepository.save(Employee.builder()
+				.firstName("Robb")
+				.lastName("Stark")
+				.email("king.in.the.north@gmail.com")
+				.build());
+
+		//when- action or behaviour that we are testing
+		List<Employee> savedEmployees = employeeRepository.findByJPQLIndexedParams("Robb", "Stark");
+
+		//then- verify the output
+		assertThat(savedEmployees).extracting(Employee::getId).containsExactly(first.getId(), second.getId());
 	}
 
 	//JUnit test for Spring Data JPA custom query using JPQL with indexed parameters
@@ -187,10 +216,10 @@ public class EmployeeRepositoryTest {
 		String searchLastName = "Stark";
 
 		//when- action or behaviour that we are testing
-		Employee savedEmployee = employeeRepository.findByJPQLNamedParams(searchFirstName, searchLastName);
+		List<Employee> savedEmployees = employeeRepository.findByJPQLNamedParams(searchFirstName, searchLastName);
 
 		//then- verify the output
-		assertThat(savedEmployee).isNotNull();
+		assertThat(savedEmployees).hasSize(1);
 	}
 
 	//JUnit test for Spring data JPA custom native query with indexed parameters
@@ -233,4 +262,39 @@ public class EmployeeRepositoryTest {
 		assertThat(savedEmployee).isNotNull();
 	}
 
+	//JUnit test for the statement budget of a multi-get
+	@DisplayName("JUnit test for findViewsByEmailIn loading every employee in one statement")
+	@Test
+	public void givenEmails_whenFindViewsByEmailIn_thenSingleStatement() {
+		//given- precondition or setup
+		employeeRepository.saveAllAndFlush(List.of(
+				Employee.builder().firstName("Chandler").lastName("Bing").email("sarcastic.bing@yahoo.com").build(),
+				Employee.builder().firstName("Joey").lastName("Tribbiani").email("joeyDoesNotShareHisFood@gmail.com").build(),
+				Employee.builder().firstName("Ross").lastName("Geller").email("we.were.on.a.break@gmail.com").build()));
+
+		//when- action or behaviour that we are testing
+		List<EmployeeView> employees = assertMaxStatements(1, () -> employeeRepository.findViewsByEmailIn(List.of(
+				"sarcastic.bing@yahoo.com", "joeyDoesNotShareHisFood@gmail.com", "we.were.on.a.break@gmail.com")));
+
+		//then- verify the output
+		assertThat(employees).hasSize(3);
+	}
+
+	//JUnit test for the statement budget of a bulk insert
+	@DisplayName("JUnit test for saveAllAndFlush batching inserts instead of one round trip per row")
+	@Test
+	public void givenManyEmployees_whenSaveAllAndFlush_thenInsertsAreBatched() {
+		//given- precondition or setup
+		List<Employee> employees = IntStream.range(0, 100)
+				.mapToObj(n -> Employee.builder().firstName("Gunther").lastName("Central Perk " + n).email("gunther" + n + "@centralperk.com").build())
+				.toList();
+
+		//when- action or behaviour that we are testing
+		//two sequence calls for 100 ids at allocation 50, two insert batches of 50
+		assertMaxStatements(4, () -> employeeRepository.saveAllAndFlush(employees));
+
+		//then- verify the output
+		assertThat(employeeRepository.count()).isEqualTo(100);
+	}
+
 }
@@ -1,14 +1,20 @@
 package com.shah.employees.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeView;
 
 /**
  * @author Shahrukh
@@ -140,10 +146,10 @@ public class RefactoredEmployeeRepositoryTest {
 		String searchLastName = employee.getLastName();
 
 		//when- action or behaviour that we are testing
-		Employee savedEmployee = employeeRepository.findByJPQLIndexedParams(searchFirstName, searchLastName);
+		List<Employee> savedEmployees = employeeRepository.findByJPQLIndexedParams(searchFirstName, searchLastName);
 
 		//then- verify the output
-		assertThat(savedEmployee).isNotNull();
+		assertThat(savedEmployees).hasSize(1);
 	}
 
 	//JUnit test for Spring Data JPA custom query using JPQL with indexed parameters
@@ -156,10 +162,10 @@ public class RefactoredEmployeeRepositoryTest {
 		String searchLastName = employee.getLastName();
 
 		//when- action or behaviour that we are testing
-		Employee savedEmployee = employeeRepository.findByJPQLNamedParams(searchFirstName, searchLastName);
+		List<Employee> savedEmployees = employeeRepository.findByJPQLNamedParams(searchFirstName, searchLastName);
 
 		//then- verify the output
-		assertThat(savedEmployee).isNotNull();
+		assertThat(savedEmployees).hasSize(1);
 	}
 
 	//JUnit test for Spring data JPA custom native query with indexed parameters
@@ -192,4 +198,126 @@ public class RefactoredEmployeeRepositoryTest {
 		assertThat(savedEmployee).isNotNull();
 	}
 
+	//JUnit test for streaming export query
+	@DisplayName("JUnit test for streaming all employees ordered by id")
+	@Test
+	public void givenEmployeeList_whenStreamAllOrderById_thenReturnAllEmployeesInOrder() {
+		//given- precondition or setup
+		employeeRepository.save(employeeTwo);
+		employeeRepository.save(employee);
+
+		//when- action or behaviour that we are testing
+		List<Long> streamedIds;
+		try(Stream<Employee> employees = employeeRepository.streamAllOrderById()) {
+			streamedIds = employees.map(Employee::getId).toList();
+		}
+
+		//then- verify the output
+		assertThat(streamedIds).containsExactly(employeeTwo.getId(), employee.getId());
+	}
+
+	//JUnit test for set-based duplicate email check
+	@DisplayName("JUnit test for finding which emails already exist")
+	@Test
+	public void givenEmails_whenFindExistingEmails_thenReturnOnlySavedEmails() {
+		//given- precondition or setup
+		employeeRepository.save(employee);
+
+		//when- action or behaviour that we are testing
+		Set<String> existingEmails = employeeRepository.findExistingEmails(Set.of(employee.getEmail(), employeeTwo.getEmail()));
+
+		//then- verify the output
+		assertThat(existingEmails).containsExactly(employee.getEmail());
+	}
+
+	//JUnit test for unique email index
+	@DisplayName("JUnit test for rejecting a second employee with the same email")
+	@Test
+	public void givenSavedEmployee_whenSaveSameEmail_thenThrowsDataIntegrityViolation() {
+		//given- precondition or setup
+		employeeRepository.saveAndFlush(employee);
+		employeeTwo.setEmail(employee.getEmail());
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		assertThatThrownBy(() -> employeeRepository.saveAndFlush(employeeTwo))
+				.isInstanceOf(DataIntegrityViolationException.class)
+				.hasMessageContaining("UX_EMPLOYEES_EMAIL");
+	}
+
+	//JUnit test for version-only lookup
+	@DisplayName("JUnit test for reading the version of an updated employee")
+	@Test
+	public void givenUpdatedEmployee_whenFindVersionById_thenReturnIncrementedVersion() {
+		//given- precondition or setup
+		employeeRepository.saveAndFlush(employee);
+		employee.setLastName("Bing Jr.");
+		employeeRepository.saveAndFlush(employee);
+
+		//when- action or behaviour that we are testing
+		Optional<Long> version = employeeRepository.findVersionById(employee.getId());
+
+		//then- verify the output
+		assertThat(version).contains(1L);
+	}
+
+	//JUnit test for conditional single statement update
+	@DisplayName("JUnit test for patch guarded by the employee version")
+	@Test
+	public void givenSavedEmployee_whenPatchIfVersionMatches_thenOnlyCurrentVersionIsUpdated() {
+		//given- precondition or setup
+		employeeRepository.saveAndFlush(employee);
+
+		//when- action or behaviour that we are testing
+		int staleUpdate = employeeRepository.patchIfVersionMatches(employee.getId(), 7L, "Chan", null, null);
+		int currentUpdate = employeeRepository.patchIfVersionMatches(employee.getId(), 0L, "Chan", null, null);
+		Employee patchedEmployee = employeeRepository.findById(employee.getId()).get();
+
+		//then- verify the output
+		assertThat(staleUpdate).isZero();
+		assertThat(currentUpdate).isEqualTo(1);
+		assertThat(patchedEmployee.getFirstName()).isEqualTo("Chan");
+		assertThat(patchedEmployee.getLastName()).isEqualTo("Bing");
+		assertThat(patchedEmployee.getVersion()).isEqualTo(1L);
+	}
+
+	//JUnit test for set-based delete
+	@DisplayName("JUnit test for deleting several employees in one statement")
+	@Test
+	public void givenEmployeeList_whenDeleteByIdIn_thenDeleteOnlyExistingEmployees() {
+		//given- precondition or setup
+		employeeRepository.save(employee);
+		employeeRepository.save(employeeTwo);
+
+		//when- action or behaviour that we are testing
+		int deleted = employeeRepository.deleteByIdIn(List.of(employee.getId(), employeeTwo.getId(), -1L));
+
+		//then- verify the output
+		assertThat(deleted).isEqualTo(2);
+		assertThat(employeeRepository.findAll()).isEmpty();
+	}
+
+	//JUnit test for read-only view queries
+	@DisplayName("JUnit test for the projection queries returning employee views")
+	@Test
+	public void givenEmployeeList_whenFindViews_thenReturnViewsWithoutEntities() {
+		//given- precondition or setup
+		employeeRepository.save(employee);
+		employeeRepository.save(employeeTwo);
+
+		//when- action or behaviour that we are testing
+		Optional<EmployeeView> byId = employeeRepository.findViewById(employee.getId());
+		List<EmployeeView> byIds = employeeRepository.findViewsByIdIn(List.of(employee.getId(), employeeTwo.getId()));
+		List<EmployeeView> byEmails = employeeRepository.findViewsByEmailIn(List.of(employeeTwo.getEmail()));
+		List<EmployeeView> pageAfter = employeeRepository.findViewPageAfterId(employee.getId(), Limit.of(10));
+		List<EmployeeView> pageBefore = employeeRepository.findViewPageBeforeId(Long.MAX_VALUE, Limit.of(1));
+
+		//then- verify the output
+		assertThat(byId).contains(EmployeeView.of(employee));
+		assertThat(byIds).containsExactlyInAnyOrder(EmployeeView.of(employee), EmployeeView.of(employeeTwo));
+		assertThat(byEmails).containsExactly(EmployeeView.of(employeeTwo));
+		assertThat(pageAfter).extracting(EmployeeView::id).containsExactly(employeeTwo.getId());
+		assertThat(pageBefore).extracting(EmployeeView::id).containsExactly(employeeTwo.getId());
+	}
+
 }
@@ -0,0 +1,87 @@
+package com.shah.employees.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.shah.employees.model.Employee;
+import com.shah.employees.search.EmployeeSearchIndex;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:lagging-primary;DB_CLOSE_DELAY=-1",
+		"employees.datasource.replica-urls=jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1",
+		"employees.datasource.replica-lag=1m"
+})
+@DirtiesContext
+public class LaggingReplicaTest {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private RecentWriters recentWriters;
+
+	//loads itself from the replica at startup, which has no tables until the test copies them over
+	@MockBean
+	private EmployeeSearchIndex employeeSearchIndex;
+
+	//JUnit test for read-your-writes through the caches
+	@DisplayName("JUnit test for a lagging replica read not cached over a client's own write")
+	@Test
+	public void givenLaggingReplica_whenOtherClientReadsFirst_thenWriterStillReadsItsWrite() {
+		//given- precondition or setup
+		Employee employee = employeeService.saveEmployee(Employee.builder()
+				.firstName("Sourav")
+				.lastName("Ganguly")
+				.email("dada@bcci.tv")
+				.build());
+		//the replica gets this snapshot and none of the writes after it
+		JdbcTemplate replica = new JdbcTemplate(database("replica"));
+		new JdbcTemplate(database("primary")).queryForList("SCRIPT", String.class).forEach(replica::execute);
+		try(RecentWriters.Scope scope = recentWriters.bind("writer")) {
+			employeeService.updateEmployee(employeeService.getEmployeeById(employee.getId()).orElseThrow().toBuilder()
+					.lastName("Dada")
+					.build());
+			employeeService.saveEmployee(Employee.builder().firstName("Rahul").lastName("Dravid").email("wall@bcci.tv").build());
+		}
+
+		//when- action or behaviour that we are testing
+		Employee readerSees;
+		Optional<Employee> readerFinds;
+		try(RecentWriters.Scope scope = recentWriters.bind("reader")) {
+			readerSees = employeeService.getEmployeeById(employee.getId()).orElseThrow();
+			readerFinds = employeeService.getEmployeeByEmail("wall@bcci.tv");
+		}
+		Employee writerSees;
+		Optional<Employee> writerFinds;
+		try(RecentWriters.Scope scope = recentWriters.bind("writer")) {
+			writerSees = employeeService.getEmployeeById(employee.getId()).orElseThrow();
+			writerFinds = employeeService.getEmployeeByEmail("wall@bcci.tv");
+		}
+
+		//then- verify the output
+		assertThat(readerSees.getLastName()).isEqualTo("Ganguly");
+		assertThat(readerFinds).isEmpty();
+		assertThat(writerSees.getLastName()).isEqualTo("Dada");
+		assertThat(writerFinds).map(Employee::getLastName).contains("Dravid");
+	}
+
+	private static DriverManagerDataSource database(String name) {
+		return new DriverManagerDataSource("jdbc:h2:mem:lagging-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+
+}
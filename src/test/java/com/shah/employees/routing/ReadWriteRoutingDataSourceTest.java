@@ -0,0 +1,114 @@
+package com.shah.employees.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+	private ReadWriteRoutingDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate writeTransaction;
+	private TransactionTemplate readOnlyTransaction;
+	private RecentWriters recentWriters;
+
+	@BeforeEach
+	public void setup() {
+		//two separate H2 databases, each names itself so a query shows where it ran
+		DriverManagerDataSource primary = database("primary");
+		DriverManagerDataSource replica = database("replica");
+		recentWriters = new RecentWriters(Duration.ofMinutes(1));
+		dataSource = new ReadWriteRoutingDataSource(primary, List.of(replica), recentWriters, new SimpleMeterRegistry());
+		dataSource.afterPropertiesSet();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		writeTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction.setReadOnly(true);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		new JdbcTemplate(database("primary")).execute("DROP ALL OBJECTS");
+		new JdbcTemplate(database("replica")).execute("DROP ALL OBJECTS");
+	}
+
+	//JUnit test for read/write routing
+	@DisplayName("JUnit test for read-only transactions on the replica and the rest on the primary")
+	@Test
+	public void givenTransactions_whenQuery_thenRouteByReadOnlyFlag() {
+		//given- precondition or setup
+
+		//when- action or behaviour that we are testing
+		String readOnly = readOnlyTransaction.execute(status -> whereAmI());
+		String write = writeTransaction.execute(status -> whereAmI());
+		String noTransaction = whereAmI();
+
+		//then- verify the output
+		assertThat(readOnly).isEqualTo("replica");
+		assertThat(write).isEqualTo("primary");
+		assertThat(noTransaction).isEqualTo("primary");
+	}
+
+	//JUnit test for replica lag fallback
+	@DisplayName("JUnit test for a client reading from the primary right after its own write")
+	@Test
+	public void givenClientWrote_whenReadOnlyTransaction_thenOnlyThatClientReadsPrimary() {
+		//given- precondition or setup
+		try(RecentWriters.Scope scope = recentWriters.bind("writer")) {
+			writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE location SET name = name"));
+		}
+		try(RecentWriters.Scope scope = recentWriters.bind("rolled-back")) {
+			writeTransaction.executeWithoutResult(status -> {
+				jdbcTemplate.update("UPDATE location SET name = name");
+				status.setRollbackOnly();
+			});
+		}
+
+		//when- action or behaviour that we are testing
+		String writer, rolledBack, otherClient;
+		try(RecentWriters.Scope scope = recentWriters.bind("writer")) {
+			writer = readOnlyTransaction.execute(status -> whereAmI());
+		}
+		try(RecentWriters.Scope scope = recentWriters.bind("rolled-back")) {
+			rolledBack = readOnlyTransaction.execute(status -> whereAmI());
+		}
+		try(RecentWriters.Scope scope = recentWriters.bind("reader")) {
+			otherClient = readOnlyTransaction.execute(status -> whereAmI());
+		}
+
+		//then- verify the output
+		assertThat(writer).isEqualTo("primary");
+		assertThat(rolledBack).isEqualTo("replica");
+		assertThat(otherClient).isEqualTo("replica");
+	}
+
+	private String whereAmI() {
+		return jdbcTemplate.queryForObject("SELECT name FROM location", String.class);
+	}
+
+	private static DriverManagerDataSource database(String name) {
+
+		DriverManagerDataSource database = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		new JdbcTemplate(database).execute("CREATE TABLE IF NOT EXISTS location (name VARCHAR(20))");
+		new JdbcTemplate(database).execute("MERGE INTO location KEY (name) VALUES ('" + name + "')");
+		return database;
+	}
+
+}
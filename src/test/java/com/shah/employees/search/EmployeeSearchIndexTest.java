@@ -0,0 +1,142 @@
+package com.shah.employees.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.service.EmployeeChangedEvent;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeSearchIndexTest {
+
+	private EmployeeService employeeService;
+	private EmployeeSearchIndex employeeSearchIndex;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		employeeService = Mockito.mock(EmployeeService.class);
+		List<Employee> employees = List.of(
+				new Employee(1L, "Sourav", "Ganguly", "dada@bcci.tv", 0L),
+				new Employee(2L, "Rahul", "Dravid", "the.wall@bcci.tv", 0L),
+				new Employee(3L, "Gautam", "Gambhir", "gauti@delhi.in", 0L),
+				new Employee(4L, "Ganesh", "Gangadhar", "ganesh@mumbai.in", 0L));
+		given(employeeService.exportEmployees(any())).willAnswer(invocation -> {
+			employees.forEach(((Consumer<Employee>) invocation.getArgument(0))::accept);
+			return (long) employees.size();
+		});
+		employeeSearchIndex = new EmployeeSearchIndex(employeeService);
+		employeeSearchIndex.run(null);
+	}
+
+	//JUnit test for a delete handled before the export reached the employee
+	@DisplayName("JUnit test for the startup export not bringing back an employee whose delete was already handled")
+	@Test
+	@SuppressWarnings("unchecked")
+	public void givenDeleteDuringLoad_whenExportReachesEmployee_thenNotIndexed() {
+		//given- precondition or setup
+		EmployeeService exportingService = Mockito.mock(EmployeeService.class);
+		EmployeeSearchIndex loadingIndex = new EmployeeSearchIndex(exportingService);
+		given(exportingService.exportEmployees(any())).willAnswer(invocation -> {
+			loadingIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+			((Consumer<Employee>) invocation.getArgument(0)).accept(new Employee(1L, "Sourav", "Ganguly", "dada@bcci.tv", 0L));
+			return 1L;
+		});
+
+		//when- action or behaviour that we are testing
+		loadingIndex.run(null);
+
+		//then- verify the output
+		assertThat(loadingIndex.search("gan", null, 10).getContent()).isEmpty();
+	}
+
+	//JUnit test for prefix search
+	@DisplayName("JUnit test for case-insensitive prefix search over names and email words")
+	@Test
+	public void givenIndexedEmployees_whenSearch_thenMatchEachEmployeeOnce() {
+		//given- precondition or setup
+
+		//when- action or behaviour that we are testing
+		EmployeePage byName = employeeSearchIndex.search("GAN", null, 10);
+		EmployeePage byEmailWord = employeeSearchIndex.search("bcci", null, 10);
+
+		//then- verify the output
+		assertThat(byName.getContent()).extracting(EmployeeView::id).containsExactly(4L, 1L);
+		assertThat(byName.getNextCursor()).isNull();
+		assertThat(byEmailWord.getContent()).extracting(EmployeeView::id).containsExactly(1L, 2L);
+	}
+
+	//JUnit test for search paging
+	@DisplayName("JUnit test for search pages following nextCursor without repeating employees")
+	@Test
+	public void givenMoreMatchesThanLimit_whenFollowCursor_thenReturnRemainingMatches() {
+		//given- precondition or setup
+		EmployeePage first = employeeSearchIndex.search("ga", null, 2);
+
+		//when- action or behaviour that we are testing
+		EmployeePage second = employeeSearchIndex.search("ga", first.getNextCursor(), 2);
+
+		//then- verify the output
+		assertThat(first.getContent()).extracting(EmployeeView::id).containsExactly(3L, 4L);
+		assertThat(second.getContent()).extracting(EmployeeView::id).containsExactly(1L);
+		assertThat(second.getNextCursor()).isNull();
+		assertThrows(BadRequestException.class, () -> employeeSearchIndex.search("dr", first.getNextCursor(), 2));
+	}
+
+	//JUnit test for index updates
+	@DisplayName("JUnit test for the index following saves, patches and deletes without reading employees back")
+	@Test
+	public void givenEmployeeChanged_whenSearch_thenReflectLatestState() {
+		//given- precondition or setup
+		EmployeePatch rename = EmployeePatch.builder().lastName("Gambler").build();
+
+		//when- action or behaviour that we are testing
+		employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.saved(new Employee(2L, "Rahul", "Jammy", "the.wall@bcci.tv", 1L)));
+		employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+		employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.patched(3L, rename, 1L));
+		employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.failed(4L));
+
+		//then- verify the output
+		assertThat(employeeSearchIndex.search("dravid", null, 10).getContent()).isEmpty();
+		assertThat(employeeSearchIndex.search("jam", null, 10).getContent()).extracting(EmployeeView::version).containsExactly(1L);
+		assertThat(employeeSearchIndex.search("bcci", null, 10).getContent()).extracting(EmployeeView::id).containsExactly(2L);
+		assertThat(employeeSearchIndex.search("gambl", null, 10).getContent()).extracting(EmployeeView::firstName).containsExactly("Gautam");
+		assertThat(employeeSearchIndex.search("ganesh", null, 10).getContent()).extracting(EmployeeView::id).containsExactly(4L);
+		Mockito.verify(employeeService, Mockito.never()).getEmployeeById(Mockito.anyLong());
+	}
+
+	//JUnit test for a patch event that arrives after a missed write
+	@DisplayName("JUnit test for a patch on top of an unseen version reading the employee back")
+	@Test
+	public void givenVersionGap_whenPatchEvent_thenReadEmployeeBack() {
+		//given- precondition or setup
+		given(employeeService.getEmployeeById(3L)).willReturn(Optional.of(new Employee(3L, "Gauti", "Gambhir", "gauti@kkr.in", 2L)));
+
+		//when- action or behaviour that we are testing
+		employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.patched(3L, EmployeePatch.builder().email("gauti@kkr.in").build(), 2L));
+
+		//then- verify the output
+		assertThat(employeeSearchIndex.search("gauti", null, 10).getContent()).extracting(EmployeeView::firstName).containsExactly("Gauti");
+		assertThat(employeeSearchIndex.search("delhi", null, 10).getContent()).isEmpty();
+	}
+
+}
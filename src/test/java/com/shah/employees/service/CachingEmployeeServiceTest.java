@@ -0,0 +1,227 @@
+package com.shah.employees.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.routing.RecentWriters;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class CachingEmployeeServiceTest {
+
+	private EmployeeService delegate;
+	private EmployeeService employeeService;
+
+	private Employee employee;
+
+	@BeforeEach
+	public void setup() {
+		delegate = Mockito.mock(EmployeeService.class);
+		ObjectProvider<RecentWriters> noReplicas = new StaticListableBeanFactory().getBeanProvider(RecentWriters.class);
+		employeeService = new CachingEmployeeService(delegate, new ConcurrentMapCacheManager(
+				CachingEmployeeService.EMPLOYEES_BY_ID, CachingEmployeeService.EMPLOYEE_IDS_BY_EMAIL), event -> {},
+				new SingleFlight(Duration.ofSeconds(1), noReplicas, new SimpleMeterRegistry()), noReplicas);
+		employee = Employee.builder()
+				.id(1L)
+				.firstName("Sourav")
+				.lastName("Ganguly")
+				.email("dada@bcci.tv")
+				.build();
+	}
+
+	//JUnit test for cached getEmployeeById
+	@DisplayName("JUnit test for getEmployeeById served from cache on the second call")
+	@Test
+	public void givenCachedEmployee_whenGetEmployeeByIdTwice_thenLoadOnceAndReturnCopies() {
+		//given- precondition or setup
+		given(delegate.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+		//when- action or behaviour that we are testing
+		Employee first = employeeService.getEmployeeById(1L).get();
+		first.setFirstName("changed by caller");
+		Employee second = employeeService.getEmployeeById(1L).get();
+
+		//then- verify the output
+		assertThat(second.getFirstName()).isEqualTo("Sourav");
+		Mockito.verify(delegate, Mockito.times(1)).getEmployeeById(1L);
+	}
+
+	//JUnit test for cache eviction on update
+	@DisplayName("JUnit test for updateEmployee evicting the cached employee")
+	@Test
+	public void givenCachedEmployee_whenUpdateEmployee_thenNextReadReloads() {
+		//given- precondition or setup
+		given(delegate.getEmployeeById(1L)).willReturn(Optional.of(employee));
+		employeeService.getEmployeeById(1L);
+		Employee updatedEmployee = employee.toBuilder().lastName("Dada").build();
+		given(delegate.updateEmployee(updatedEmployee)).willReturn(updatedEmployee);
+
+		//when- action or behaviour that we are testing
+		employeeService.updateEmployee(updatedEmployee);
+		given(delegate.getEmployeeById(1L)).willReturn(Optional.of(updatedEmployee));
+		Employee reloaded = employeeService.getEmployeeById(1L).get();
+
+		//then- verify the output
+		assertThat(reloaded.getLastName()).isEqualTo("Dada");
+		Mockito.verify(delegate, Mockito.times(2)).getEmployeeById(1L);
+	}
+
+	//JUnit test for stale email mapping
+	@DisplayName("JUnit test for getEmployeeByEmail after the email moved to another employee")
+	@Test
+	public void givenEmailChangedElsewhere_whenGetEmployeeByEmail_thenFallBackToDelegate() {
+		//given- precondition or setup
+		given(delegate.getEmployeeByEmail("dada@bcci.tv")).willReturn(Optional.of(employee));
+		given(delegate.updateEmployee(any())).willAnswer(invocation -> invocation.getArgument(0));
+		employeeService.getEmployeeByEmail("dada@bcci.tv");
+		employeeService.updateEmployee(employee.toBuilder().email("prince@kolkata.in").build());
+		given(delegate.getEmployeeById(1L)).willReturn(Optional.of(employee.toBuilder().email("prince@kolkata.in").build()));
+		given(delegate.getEmployeeByEmail("dada@bcci.tv")).willReturn(Optional.empty());
+
+		//when- action or behaviour that we are testing
+		Optional<Employee> found = employeeService.getEmployeeByEmail("dada@bcci.tv");
+
+		//then- verify the output
+		assertThat(found).isEmpty();
+	}
+
+	//JUnit test for a lookup without an email
+	@DisplayName("JUnit test for getEmployeeByEmail returning empty for a null email instead of failing on the cache key")
+	@Test
+	public void givenNullEmail_whenGetEmployeeByEmail_thenReturnEmpty() {
+		//given- precondition or setup
+		String email = null;
+
+		//when- action or behaviour that we are testing
+		Optional<Employee> found = employeeService.getEmployeeByEmail(email);
+
+		//then- verify the output
+		assertThat(found).isEmpty();
+		Mockito.verifyNoInteractions(delegate);
+	}
+
+	//JUnit test for a write racing with a lookup by email
+	@DisplayName("JUnit test for getEmployeeByEmail never caching the row it read when a patch evicted it meanwhile")
+	@Test
+	public void givenPatchDuringLoadByEmail_whenGetEmployeeById_thenReturnPatchedEmployee() {
+		//given- precondition or setup
+		Employee patched = employee.toBuilder().lastName("Dada").version(1L).build();
+		given(delegate.getEmployeeByEmail("dada@bcci.tv")).willAnswer(invocation -> {
+			//the row was read, then a write on this node commits and evicts before the loader returns
+			employeeService.patchEmployee(1L, null, EmployeePatch.builder().lastName("Dada").build());
+			return Optional.of(employee);
+		});
+		given(delegate.getEmployeeById(1L)).willReturn(Optional.of(patched));
+
+		//when- action or behaviour that we are testing
+		Employee byEmail = employeeService.getEmployeeByEmail("dada@bcci.tv").get();
+		Employee byId = employeeService.getEmployeeById(1L).get();
+
+		//then- verify the output
+		assertThat(byEmail.getLastName()).isEqualTo("Dada");
+		assertThat(byId.getLastName()).isEqualTo("Dada");
+	}
+
+	//JUnit test for an update racing with a multi-get
+	@DisplayName("JUnit test for getEmployeesByIds not caching the rows it read when an update evicted them meanwhile")
+	@Test
+	public void givenUpdateDuringMultiGet_whenGetEmployeeById_thenReturnUpdatedEmployee() {
+		//given- precondition or setup
+		Employee updatedEmployee = employee.toBuilder().lastName("Dada").version(1L).build();
+		given(delegate.getEmployeesByIds(List.of(1L))).willAnswer(invocation -> {
+			//the IN query has read the row, then an update on this node commits and evicts it
+			employeeService.updateEmployee(updatedEmployee);
+			return List.of(EmployeeView.of(employee));
+		});
+		given(delegate.updateEmployee(updatedEmployee)).willReturn(updatedEmployee);
+		given(delegate.getEmployeeById(1L)).willReturn(Optional.of(updatedEmployee));
+
+		//when- action or behaviour that we are testing
+		List<EmployeeView> multiGet = employeeService.getEmployeesByIds(List.of(1L));
+		Employee byId = employeeService.getEmployeeById(1L).get();
+
+		//then- verify the output
+		assertThat(multiGet).extracting(EmployeeView::lastName).containsExactly("Ganguly");
+		assertThat(byId.getLastName()).isEqualTo("Dada");
+		assertThat(employeeService.getEmployeeVersion(1L)).contains(1L);
+	}
+
+	//JUnit test for an update racing with a multi-get by email
+	@DisplayName("JUnit test for getEmployeesByEmails not caching the rows it read when an update evicted them meanwhile")
+	@Test
+	public void givenUpdateDuringMultiGetByEmail_whenGetEmployeeByEmail_thenReturnUpdatedEmployee() {
+		//given- precondition or setup
+		Employee updatedEmployee = employee.toBuilder().lastName("Dada").version(1L).build();
+		given(delegate.getEmployeesByEmails(List.of("dada@bcci.tv"))).willAnswer(invocation -> {
+			employeeService.updateEmployee(updatedEmployee);
+			return List.of(EmployeeView.of(employee));
+		});
+		given(delegate.updateEmployee(updatedEmployee)).willReturn(updatedEmployee);
+		given(delegate.getEmployeeByEmail("dada@bcci.tv")).willReturn(Optional.of(updatedEmployee));
+		given(delegate.getEmployeeById(1L)).willReturn(Optional.of(updatedEmployee));
+
+		//when- action or behaviour that we are testing
+		employeeService.getEmployeesByEmails(List.of("dada@bcci.tv"));
+		Employee byEmail = employeeService.getEmployeeByEmail("dada@bcci.tv").get();
+
+		//then- verify the output
+		assertThat(byEmail.getLastName()).isEqualTo("Dada");
+	}
+
+	//JUnit test for a waiter giving up on a stalled load
+	@DisplayName("JUnit test for getEmployeeById returning after max-wait while the load of the same id is stalled")
+	@Test
+	public void givenStalledLoad_whenGetEmployeeById_thenReturnAfterMaxWait() throws Exception {
+		//given- precondition or setup
+		ObjectProvider<RecentWriters> noReplicas = new StaticListableBeanFactory().getBeanProvider(RecentWriters.class);
+		EmployeeService shortWait = new CachingEmployeeService(delegate, new ConcurrentMapCacheManager(
+				CachingEmployeeService.EMPLOYEES_BY_ID, CachingEmployeeService.EMPLOYEE_IDS_BY_EMAIL), event -> {},
+				new SingleFlight(Duration.ofMillis(100), noReplicas, new SimpleMeterRegistry()), noReplicas);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		given(delegate.getEmployeeById(1L)).willAnswer(invocation -> {
+			loading.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return Optional.of(employee);
+		}).willReturn(Optional.of(employee));
+		CompletableFuture<Optional<Employee>> leader = CompletableFuture.supplyAsync(() -> shortWait.getEmployeeById(1L));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+		//when- action or behaviour that we are testing
+		Optional<Employee> follower;
+		try {
+			follower = CompletableFuture.supplyAsync(() -> shortWait.getEmployeeById(1L)).get(5, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+		}
+
+		//then- verify the output
+		assertThat(follower).map(Employee::getLastName).contains("Ganguly");
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isPresent();
+		Mockito.verify(delegate, Mockito.times(2)).getEmployeeById(1L);
+	}
+
+}
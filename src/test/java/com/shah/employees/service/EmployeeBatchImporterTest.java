@@ -0,0 +1,63 @@
+package com.shah.employees.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeBatchImporterTest {
+
+	//JUnit test for a malformed row in a bulk import
+	@DisplayName("JUnit test for importEmployees keeping the row errors of saved rows when a later row is malformed")
+	@Test
+	public void givenMalformedRow_whenImportEmployees_thenReturnPartialResultWithParseError() {
+		//given- precondition or setup
+		EmployeeService employeeService = Mockito.mock(EmployeeService.class);
+		given(employeeService.saveEmployees(anyList())).willReturn(new EmployeeBatchResult(2, 1,
+				List.of(new EmployeeBatchResult.RowError(1, "dada@bcci.tv", "Email dada@bcci.tv is already taken"))));
+		Employee employee = Employee.builder().firstName("Sourav").lastName("Ganguly").email("dada@bcci.tv").build();
+		Iterator<Employee> rows = new Iterator<>() {
+			private int read;
+
+			@Override
+			public boolean hasNext() {
+				if(read == 2) {
+					throw new IllegalArgumentException("Unexpected character ('}')");
+				}
+				return true;
+			}
+
+			@Override
+			public Employee next() {
+				if(read++ == 2) {
+					throw new NoSuchElementException();
+				}
+				return employee;
+			}
+		};
+
+		//when- action or behaviour that we are testing
+		EmployeeBatchResult result = new EmployeeBatchImporter(employeeService).importEmployees(rows);
+
+		//then- verify the output
+		assertThat(result.getReceived()).isEqualTo(3);
+		assertThat(result.getCreated()).isEqualTo(1);
+		assertThat(result.getErrors()).extracting(EmployeeBatchResult.RowError::getIndex).containsExactly(1, 2);
+		assertThat(result.getErrors().get(1).getMessage()).startsWith("Malformed employee").contains("Unexpected character");
+	}
+
+}
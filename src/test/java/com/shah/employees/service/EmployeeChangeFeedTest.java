@@ -0,0 +1,122 @@
+package com.shah.employees.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeChange;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.model.EmployeeChangeView;
+import com.shah.employees.model.EmployeePatch;
+
+/**
+ * @author Shahrukh
+ *
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:change-feed;DB_CLOSE_DELAY=-1")
+@DirtiesContext
+public class EmployeeChangeFeedTest {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	//JUnit test for the change feed
+	@DisplayName("JUnit test for getChanges returning the latest state of each changed employee and tombstones")
+	@Test
+	public void givenWrites_whenGetChanges_thenLatestChangePerEmployee() {
+		//given- precondition or setup
+		long since = currentPosition();
+		Employee kept = employeeService.saveEmployee(employee("kept@changes.io"));
+		Employee removed = employeeService.saveEmployee(employee("removed@changes.io"));
+		employeeService.patchEmployee(kept.getId(), null, EmployeePatch.builder().firstName("Patched").build());
+		employeeService.deleteEmployee(removed.getId());
+
+		//when- action or behaviour that we are testing
+		EmployeeChangePage page = employeeService.getChanges(since, 100);
+		EmployeeChangePage next = employeeService.getChanges(page.getLastSequence(), 100);
+
+		//then- verify the output
+		assertThat(page.getChanges()).extracting(EmployeeChangeView::employeeId, EmployeeChangeView::type)
+				.containsExactly(tuple(kept.getId(), EmployeeChange.Type.UPDATED),
+						tuple(removed.getId(), EmployeeChange.Type.DELETED));
+		assertThat(page.getChanges().get(0).employee().firstName()).isEqualTo("Patched");
+		assertThat(page.getChanges().get(1).employee()).isNull();
+		assertThat(page.isMore()).isFalse();
+		assertThat(next.getChanges()).isEmpty();
+		assertThat(next.getLastSequence()).isEqualTo(page.getLastSequence());
+	}
+
+	//JUnit test for a transaction that commits after a later one was already read
+	@DisplayName("JUnit test for getChanges returning a late commit after the position a client already moved past")
+	@Test
+	public void givenSlowTransaction_whenFasterWriteIsReadFirst_thenSlowWriteFollowsLater() {
+		//given- precondition or setup
+		long since = currentPosition();
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		TransactionTemplate slowTransaction = new TransactionTemplate(transactionManager);
+		CompletableFuture<Employee> slow = CompletableFuture.supplyAsync(() -> slowTransaction.execute(status -> {
+			Employee saved = employeeService.saveEmployee(employee("slow@changes.io"));
+			written.countDown();
+			await(commit);
+			return saved;
+		}));
+		await(written);
+		Employee fast = employeeService.saveEmployee(employee("fast@changes.io"));
+
+		//when- action or behaviour that we are testing
+		EmployeeChangePage beforeCommit = employeeService.getChanges(since, 100);
+		commit.countDown();
+		Employee committedLate = slow.join();
+		EmployeeChangePage afterCommit = employeeService.getChanges(beforeCommit.getLastSequence(), 100);
+
+		//then- verify the output
+		assertThat(beforeCommit.getChanges()).extracting(EmployeeChangeView::employeeId).containsExactly(fast.getId());
+		assertThat(afterCommit.getChanges()).extracting(EmployeeChangeView::employeeId).containsExactly(committedLate.getId());
+		assertThat(afterCommit.getLastSequence()).isGreaterThan(beforeCommit.getLastSequence());
+	}
+
+	//position after everything the other test wrote
+	private long currentPosition() {
+
+		long since = 0;
+		EmployeeChangePage page;
+		do {
+			page = employeeService.getChanges(since, EmployeeServiceImpl.MAX_CHANGES_PAGE_SIZE);
+			since = page.getLastSequence();
+		} while(page.isMore());
+		return since;
+	}
+
+	private static void await(CountDownLatch latch) {
+
+		try {
+			if(!latch.await(10, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Timed out waiting for the other transaction");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Employee employee(String email) {
+		return Employee.builder().firstName("Change").lastName("Feed").email(email).build();
+	}
+
+}
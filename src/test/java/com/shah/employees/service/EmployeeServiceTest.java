@@ -1,6 +1,9 @@
 package com.shah.employees.service;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +13,8 @@ import org.mockito.BDDMockito;
 import org.mockito.Mockito;
 
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeChangePage;
+import com.shah.employees.repository.EmployeeChangeRepository;
 import com.shah.employees.repository.EmployeeRepository;
 
 /**
@@ -19,12 +24,15 @@ import com.shah.employees.repository.EmployeeRepository;
 public class EmployeeServiceTest {
 	
 	private EmployeeRepository employeeRepository;
+	private EmployeeChangeFeed employeeChangeFeed;
 	private EmployeeService employeeService;
 	
 	@BeforeEach
 	public void setup() {
 		employeeRepository = Mockito.mock(EmployeeRepository.class);
-		employeeService = new EmployeeServiceImpl(employeeRepository);
+		employeeChangeFeed = Mockito.mock(EmployeeChangeFeed.class);
+		employeeService = new EmployeeServiceImpl(employeeRepository, Mockito.mock(EmployeeChangeRepository.class),
+				employeeChangeFeed);
 	}
 	
 	//JUnit test for saveEmployee method
@@ -39,9 +47,7 @@ public class EmployeeServiceTest {
 				.email("caption.cool07@yahoo.com")
 				.build();
 		
-		BDDMockito.given(employeeRepository.findByEmail(Mockito.anyString())).willReturn(Optional.empty());
-		
-		BDDMockito.given(employeeRepository.save(employee)).willReturn(employee);
+		BDDMockito.given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 		
 		System.out.println(employeeRepository);
 		System.out.println(employeeService);
@@ -52,5 +58,33 @@ public class EmployeeServiceTest {
 		//then- verify the output
 		Assertions.assertThat(savedEmployee).isNotNull();
 	}
+	
+	//JUnit test for getChanges while another caller numbers the changes
+	@DisplayName(value = "JUnit test for getChanges reading without waiting for a numbering in progress")
+	@Test
+	public void givenNumberingInProgress_whenGetChanges_thenReadWithoutWaiting() throws Exception {
+		//given- precondition or setup
+		CountDownLatch numbering = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		BDDMockito.given(employeeChangeFeed.publish()).willAnswer(invocation -> {
+			numbering.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return false;
+		});
+		EmployeeChangePage empty = new EmployeeChangePage(List.of(), 5, false);
+		BDDMockito.given(employeeChangeFeed.read(5, 100, false)).willReturn(empty);
+		CompletableFuture<EmployeeChangePage> numberer = CompletableFuture.supplyAsync(() -> employeeService.getChanges(5, 100));
+		Assertions.assertThat(numbering.await(10, TimeUnit.SECONDS)).isTrue();
+		
+		//when- action or behaviour that we are testing
+		EmployeeChangePage page = CompletableFuture.supplyAsync(() -> employeeService.getChanges(5, 100))
+				.get(5, TimeUnit.SECONDS);
+		release.countDown();
+		numberer.get(10, TimeUnit.SECONDS);
+		
+		//then- verify the output
+		Assertions.assertThat(page).isSameAs(empty);
+		Mockito.verify(employeeChangeFeed, Mockito.times(1)).publish();
+	}
 
 }
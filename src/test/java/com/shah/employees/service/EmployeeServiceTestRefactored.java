@@ -4,9 +4,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.given;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,9 +20,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 
+import com.shah.employees.exception.DuplicateEmailException;
+import com.shah.employees.exception.PreconditionFailedException;
 import com.shah.employees.exception.ResourceNotFoundException;
 import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.repository.EmployeeChangeRepository;
 import com.shah.employees.repository.EmployeeRepository;
 
 /**
@@ -31,6 +45,8 @@ public class EmployeeServiceTestRefactored {
 
 	@Mock
 	private EmployeeRepository employeeRepository;
+	@Mock
+	private EmployeeChangeRepository employeeChangeRepository;
 	@InjectMocks
 	private EmployeeServiceImpl employeeService;
 	
@@ -57,8 +73,13 @@ public class EmployeeServiceTestRefactored {
 	@Test
 	public void givenEmployeeObject_whenSaveEmployee_thenReturnSavedEmployee() {
 		//given- precondition or setup
-		given(employeeRepository.findByEmail(Mockito.anyString())).willReturn(Optional.empty());
-		given(employeeRepository.save(employee)).willReturn(employee);
+		Employee persistedEmployee = Employee.builder()
+				.id(1L)
+				.firstName(employee.getFirstName())
+				.lastName(employee.getLastName())
+				.email(employee.getEmail())
+				.build();
+		given(employeeRepository.saveAndFlush(employee)).willReturn(persistedEmployee);
 
 		//when- action or behaviour that we are testing
 		Employee savedEmployee = employeeService.saveEmployee(employee);
@@ -66,6 +87,7 @@ public class EmployeeServiceTestRefactored {
 		//then- verify the output
 		assertThat(savedEmployee).isNotNull();
 		assertThat(savedEmployee.getId()).isPositive();
+		Mockito.verify(employeeRepository, Mockito.never()).findByEmail(Mockito.anyString());
 	}
 	
 	//JUnit test for saveEmployee method which throws an exception
@@ -73,15 +95,36 @@ public class EmployeeServiceTestRefactored {
 	@Test
 	public void givenExistingEmployee_whenSaveEmployee_thenThrowsException() {
 		//given- precondition or setup
-		given(employeeRepository.findByEmail(Mockito.anyString())).willReturn(Optional.of(employee));
+		ConstraintViolationException uniqueEmailViolation = new ConstraintViolationException(
+				"Unique index or primary key violation", null, "PUBLIC.UX_EMPLOYEES_EMAIL_INDEX_3");
+		given(employeeRepository.saveAndFlush(employee))
+				.willThrow(new DataIntegrityViolationException("could not execute statement", uniqueEmailViolation));
 		
-		//given(employeeRepository.save(employee)).willReturn(employee); //UnnecessaryStubbingException: Unnecessary stubbings detected.
+		//when- action or behaviour that we are testing
+		assertThrows(DuplicateEmailException.class, () -> { employeeService.saveEmployee(employee); });
+		
+		//then- verify the output
+		Mockito.verify(employeeRepository, Mockito.never()).findByEmail(Mockito.anyString());
+	}
+	
+	//JUnit test for saveEmployees bulk method
+	@DisplayName("JUnit test for saveEmployees method with duplicate and invalid rows")
+	@Test
+	public void givenEmployeeBatch_whenSaveEmployees_thenSaveValidRowsAndReportRejectedRows() {
+		//given- precondition or setup
+		Employee duplicateInBatch = Employee.builder().firstName("Virat").lastName("Kohli").email(employeeTwo.getEmail()).build();
+		Employee missingName = Employee.builder().lastName("Sharma").email("hitman45@gmail.com").build();
+		given(employeeRepository.findExistingEmails(Mockito.anyCollection())).willReturn(Set.of(employee.getEmail()));
 		
 		//when- action or behaviour that we are testing
-		assertThrows(ResourceNotFoundException.class, () -> { employeeService.saveEmployee(employee); });
+		EmployeeBatchResult result = employeeService.saveEmployees(List.of(employee, employeeTwo, duplicateInBatch, missingName));
 		
 		//then- verify the output
-		Mockito.verify(employeeRepository, Mockito.never()).save(Mockito.any(Employee.class));
+		assertThat(result.getReceived()).isEqualTo(4);
+		assertThat(result.getCreated()).isEqualTo(1);
+		assertThat(result.getErrors()).extracting(EmployeeBatchResult.RowError::getIndex).containsExactly(0, 2, 3);
+		Mockito.verify(employeeRepository).saveAllAndFlush(List.of(employeeTwo));
+		Mockito.verify(employeeRepository, Mockito.never()).findByEmail(Mockito.anyString());
 	}
 	
 	//JUnit test for getAllEmployees method
@@ -114,12 +157,62 @@ public class EmployeeServiceTestRefactored {
 		assertThat(employeeList.size()).isEqualTo(0);
 	}
 	
+	//JUnit test for getEmployees keyset pagination method
+	@DisplayName("JUnit test for getEmployees method (next page cursor)")
+	@Test
+	public void givenMoreRowsThanPageSize_whenGetEmployees_thenReturnPageWithNextCursor() {
+		//given- precondition or setup
+		employeeTwo.setId(2L);
+		given(employeeRepository.findViewPageAfterId(0L, Limit.of(2))).willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employeeTwo)));
+		
+		//when- action or behaviour that we are testing
+		EmployeePage page = employeeService.getEmployees(null, 1, Sort.Direction.ASC);
+		
+		//then- verify the output
+		assertThat(page.getContent()).containsExactly(EmployeeView.of(employee));
+		assertThat(EmployeeCursor.decode(page.getNextCursor())).isEqualTo(new EmployeeCursor(1L, Sort.Direction.ASC));
+	}
+	
+	//JUnit test for getEmployees keyset pagination method
+	@DisplayName("JUnit test for getEmployees method (last page)")
+	@Test
+	public void givenCursor_whenGetEmployees_thenSeekFromCursorAndReturnLastPage() {
+		//given- precondition or setup
+		String cursor = new EmployeeCursor(5L, Sort.Direction.DESC).encode();
+		given(employeeRepository.findViewPageBeforeId(5L, Limit.of(11))).willReturn(List.of(EmployeeView.of(employee)));
+		
+		//when- action or behaviour that we are testing
+		EmployeePage page = employeeService.getEmployees(cursor, 10, Sort.Direction.ASC);
+		
+		//then- verify the output
+		assertThat(page.getContent()).containsExactly(EmployeeView.of(employee));
+		assertThat(page.getNextCursor()).isNull();
+	}
+	
+	//JUnit test for exportEmployees method
+	@DisplayName("JUnit test for exportEmployees method")
+	@Test
+	public void givenEmployeeStream_whenExportEmployees_thenConsumeAndDetachEachEmployee() {
+		//given- precondition or setup
+		given(employeeRepository.streamAllOrderById()).willReturn(Stream.of(employee, employeeTwo));
+		List<Employee> exported = new ArrayList<>();
+		
+		//when- action or behaviour that we are testing
+		long count = employeeService.exportEmployees(exported::add);
+		
+		//then- verify the output
+		assertThat(count).isEqualTo(2);
+		assertThat(exported).containsExactly(employee, employeeTwo);
+		Mockito.verify(employeeRepository).detach(employee);
+		Mockito.verify(employeeRepository).detach(employeeTwo);
+	}
+	
 	//JUnit test for getEmployeeById method
 	@DisplayName("JUnit test for getEmployeeById method")
 	@Test
 	public void givenEmployeeId_whenGetEmployeeById_thenReturnSavedEmployee() {
 		//given- precondition or setup
-		given(employeeRepository.findById(Mockito.anyLong())).willReturn(Optional.of(employee));
+		given(employeeRepository.findViewById(Mockito.anyLong())).willReturn(Optional.of(EmployeeView.of(employee)));
 		
 		//when- action or behaviour that we are testing
 		Employee savedEmployee = employeeService.getEmployeeById(Mockito.anyLong()).get();
@@ -134,7 +227,7 @@ public class EmployeeServiceTestRefactored {
 	@Test
 	public void givenUpdatedValues_whenUpdateEmployee_thenReturnUpdatedEmployee() {
 		//given- precondition or setup
-		given(employeeRepository.save(employee)).willReturn(employee);
+		given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 		employee.setFirstName("Sachin");
 		employee.setEmail("master.blaster@yahoo.com");
 		
@@ -146,19 +239,79 @@ public class EmployeeServiceTestRefactored {
 		assertThat(updatedEmployee.getEmail()).isEqualTo("master.blaster@yahoo.com");
 	}
 	
+	//JUnit test for patchEmployee method
+	@DisplayName("JUnit test for patchEmployee method (current version)")
+	@Test
+	public void givenCurrentVersion_whenPatchEmployee_thenReturnNextVersionInOneStatement() {
+		//given- precondition or setup
+		EmployeePatch patch = EmployeePatch.builder().email("thala07@csk.in").build();
+		given(employeeRepository.patchIfVersionMatches(1L, 3L, null, null, "thala07@csk.in")).willReturn(1);
+		
+		//when- action or behaviour that we are testing
+		long version = employeeService.patchEmployee(1L, 3L, patch);
+		
+		//then- verify the output
+		assertThat(version).isEqualTo(4L);
+		Mockito.verify(employeeRepository, Mockito.never()).findVersionById(Mockito.anyLong());
+	}
+	
+	//JUnit test for patchEmployee method
+	@DisplayName("JUnit test for patchEmployee method (stale version or missing employee)")
+	@Test
+	public void givenStaleVersionOrMissingEmployee_whenPatchEmployee_thenThrowsException() {
+		//given- precondition or setup
+		EmployeePatch patch = EmployeePatch.builder().lastName("Dhoni").build();
+		given(employeeRepository.patchIfVersionMatches(Mockito.anyLong(), Mockito.eq(3L), Mockito.isNull(), Mockito.eq("Dhoni"), Mockito.isNull())).willReturn(0);
+		given(employeeRepository.findVersionById(1L)).willReturn(Optional.of(5L));
+		given(employeeRepository.findVersionById(2L)).willReturn(Optional.empty());
+		
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		assertThrows(PreconditionFailedException.class, () -> { employeeService.patchEmployee(1L, 3L, patch); });
+		assertThrows(ResourceNotFoundException.class, () -> { employeeService.patchEmployee(2L, 3L, patch); });
+	}
+	
 	//JUnit test for deleteEmployee method
 	@DisplayName("JUnit test for deleteEmployee method")
 	@Test
 	public void givenEmployeeId_whenDeleteEmployee_thenReturnNothing() {
 		//given- precondition or setup
 		long employeeIdToDelete = 1L;
-		BDDMockito.willDoNothing().given(employeeRepository).deleteById(Mockito.anyLong());
+		given(employeeRepository.deleteByIdIn(List.of(employeeIdToDelete))).willReturn(1);
 		
 		//when- action or behaviour that we are testing
 		employeeService.deleteEmployee(employeeIdToDelete);
 		
 		//then- verify the output
-		BDDMockito.verify(employeeRepository, Mockito.times(1)).deleteById(employeeIdToDelete);
+		BDDMockito.verify(employeeRepository, Mockito.times(1)).deleteByIdIn(List.of(employeeIdToDelete));
+		BDDMockito.verify(employeeRepository, Mockito.never()).deleteById(Mockito.anyLong());
+	}
+	
+	//JUnit test for deleteEmployee method
+	@DisplayName("JUnit test for deleteEmployee method (unknown id)")
+	@Test
+	public void givenUnknownEmployeeId_whenDeleteEmployee_thenThrowsException() {
+		//given- precondition or setup
+		given(employeeRepository.deleteByIdIn(List.of(9L))).willReturn(0);
+		
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		assertThrows(ResourceNotFoundException.class, () -> { employeeService.deleteEmployee(9L); });
+	}
+	
+	//JUnit test for getEmployeesByIds method
+	@DisplayName("JUnit test for getEmployeesByIds method")
+	@Test
+	public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnFoundEmployeesInRequestedOrder() {
+		//given- precondition or setup
+		employeeTwo.setId(2L);
+		given(employeeRepository.findViewsByIdIn(List.of(2L, 3L, 1L))).willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employeeTwo)));
+		
+		//when- action or behaviour that we are testing
+		List<EmployeeView> employeeList = employeeService.getEmployeesByIds(List.of(2L, 3L, 1L));
+		
+		//then- verify the output
+		assertThat(employeeList).containsExactly(EmployeeView.of(employeeTwo), EmployeeView.of(employee));
 	}
 
 }
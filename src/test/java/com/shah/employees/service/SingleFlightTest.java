@@ -0,0 +1,133 @@
+package com.shah.employees.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.shah.employees.routing.RecentWriters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class SingleFlightTest {
+
+	private MeterRegistry meterRegistry;
+	private ExecutorService executor;
+	private AtomicInteger calls;
+	private CountDownLatch release;
+
+	@BeforeEach
+	public void setup() {
+		meterRegistry = new SimpleMeterRegistry();
+		executor = Executors.newFixedThreadPool(8);
+		calls = new AtomicInteger();
+		release = new CountDownLatch(1);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	//JUnit test for coalescing concurrent reads
+	@DisplayName("JUnit test for concurrent callers of one key sharing a single call and its result")
+	@Test
+	public void givenConcurrentCallers_whenExecute_thenOneCallSharedByAll() throws Exception {
+		//given- precondition or setup
+		SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+		CountDownLatch arrived = new CountDownLatch(8);
+
+		//when- action or behaviour that we are testing
+		List<Future<Integer>> results = IntStream.range(0, 8)
+				.mapToObj(n -> executor.submit(() -> {
+					arrived.countDown();
+					return singleFlight.execute(List.of("id", 1L), this::slowCall);
+				}))
+				.toList();
+		arrived.await();
+		Thread.sleep(200);
+		release.countDown();
+
+		//then- verify the output
+		for(Future<Integer> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+		}
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(meterRegistry.get("employees.single-flight.calls").tag("outcome", "shared").counter().count()).isEqualTo(7);
+	}
+
+	//JUnit test for the bounded wait
+	@DisplayName("JUnit test for a waiter making its own call once max-wait has passed")
+	@Test
+	public void givenSlowLeader_whenWaitExceedsMaxWait_thenCallerRunsItsOwnCall() throws Exception {
+		//given- precondition or setup
+		SingleFlight singleFlight = singleFlight(Duration.ofMillis(50));
+		Future<Integer> leader = executor.submit(() -> singleFlight.execute(List.of("all"), this::slowCall));
+		while(calls.get() == 0) {
+			Thread.onSpinWait();
+		}
+
+		//when- action or behaviour that we are testing
+		int own = singleFlight.execute(List.of("all"), calls::incrementAndGet);
+		release.countDown();
+
+		//then- verify the output
+		assertThat(own).isEqualTo(2);
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+		assertThat(meterRegistry.get("employees.single-flight.calls").tag("outcome", "timeout").counter().count()).isEqualTo(1);
+	}
+
+	//JUnit test for reads issued after a write
+	@DisplayName("JUnit test for a call after invalidate not joining the call already in flight")
+	@Test
+	public void givenCallInFlight_whenInvalidate_thenNextCallerStartsNewCall() throws Exception {
+		//given- precondition or setup
+		SingleFlight singleFlight = singleFlight(Duration.ofSeconds(10));
+		executor.submit(() -> singleFlight.execute(List.of("id", 1L), this::slowCall));
+		while(calls.get() == 0) {
+			Thread.onSpinWait();
+		}
+
+		//when- action or behaviour that we are testing
+		singleFlight.invalidate();
+		int afterWrite = singleFlight.execute(List.of("id", 1L), calls::incrementAndGet);
+
+		//then- verify the output
+		assertThat(afterWrite).isEqualTo(2);
+	}
+
+	private int slowCall() {
+
+		int call = calls.incrementAndGet();
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return call;
+	}
+
+	private SingleFlight singleFlight(Duration maxWait) {
+		return new SingleFlight(maxWait, new StaticListableBeanFactory().getBeanProvider(RecentWriters.class), meterRegistry);
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.shah.employees.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * @author Shahrukh
+ *
+ */
+public class EmployeeShardTest {
+
+	private DriverManagerDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	public void setup() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:shard-placement;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE employees (id BIGINT PRIMARY KEY)");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+
+	//JUnit test for a shard written by the sharded service
+	@DisplayName("JUnit test for checkPlacement accepting a shard whose ids all name it")
+	@Test
+	public void givenIdsOfThisShard_whenCheckPlacement_thenAccept() {
+		//given- precondition or setup
+		jdbcTemplate.update("INSERT INTO employees (id) VALUES (1), (4), (7)");
+
+		//when- action or behaviour that we are testing
+		//then- verify the output
+		assertDoesNotThrow(() -> EmployeeShard.checkPlacement("shard-1", dataSource, 3, 1));
+	}
+
+	//JUnit test for turning sharding on over an existing database
+	@DisplayName("JUnit test for checkPlacement rejecting a shard that holds ids of another shard")
+	@Test
+	public void givenExistingUnshardedRows_whenCheckPlacement_thenReject() {
+		//given- precondition or setup
+		jdbcTemplate.update("INSERT INTO employees (id) VALUES (3), (4), (5), (6)");
+
+		//when- action or behaviour that we are testing
+		IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> EmployeeShard.checkPlacement("shard-0", dataSource, 3, 0));
+
+		//then- verify the output
+		assertThat(e.getMessage()).contains("employee 4").contains("shard 1 of 3");
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.shah.employees.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.shah.employees.exception.BadRequestException;
+import com.shah.employees.model.Employee;
+import com.shah.employees.model.EmployeeBatchResult;
+import com.shah.employees.model.EmployeePage;
+import com.shah.employees.model.EmployeePatch;
+import com.shah.employees.model.EmployeeView;
+import com.shah.employees.service.EmployeeService;
+
+/**
+ * @author Shahrukh
+ *
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:sharded-0;DB_CLOSE_DELAY=-1",
+		"employees.sharding.shard-urls=jdbc:h2:mem:sharded-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:sharded-2;DB_CLOSE_DELAY=-1"
+})
+@DirtiesContext
+public class ShardedEmployeeServiceTest {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	@Qualifier(ShardingConfiguration.SHARDED_SERVICE)
+	private ShardedEmployeeService shardedEmployeeService;
+
+	//JUnit test for placing employees on shards
+	@DisplayName("JUnit test for each employee stored on the shard its email hashes to, with an id naming that shard")
+	@Test
+	public void givenEmployees_whenSaveEmployees_thenSpreadOverShards() {
+		//given- precondition or setup
+		List<Employee> employees = employees("placed", 30);
+		employees.add(Employee.builder().firstName("No").lastName("Email").build());
+		employees.add(employees.get(0).toBuilder().build());
+
+		//when- action or behaviour that we are testing
+		EmployeeBatchResult result = employeeService.saveEmployees(employees);
+
+		//then- verify the output
+		assertThat(result.getCreated()).isEqualTo(30);
+		assertThat(result.getErrors()).extracting(EmployeeBatchResult.RowError::getIndex).containsExactly(30, 31);
+		for(int shard = 0; shard < 3; shard++) {
+			long expectedShard = shard;
+			List<Long> ids = new JdbcTemplate(shard(shard)).queryForList("SELECT id FROM employees WHERE email LIKE 'placed%'", Long.class);
+			assertThat(ids).isNotEmpty().allMatch(id -> id % 3 == expectedShard);
+		}
+		Employee saved = employeeService.getEmployeeByEmail(employees.get(7).getEmail()).orElseThrow();
+		assertThat(shardedEmployeeService.shardOfId(saved.getId())).isEqualTo(shardedEmployeeService.shardOfEmail(saved.getEmail()));
+		assertThat(employeeService.getEmployeeById(saved.getId())).isPresent();
+	}
+
+	//JUnit test for scatter-gather paging
+	@DisplayName("JUnit test for pages merged from every shard in id order")
+	@Test
+	public void givenEmployeesOnAllShards_whenPageThroughEmployees_thenReturnEveryEmployeeOnceInOrder() {
+		//given- precondition or setup
+		employeeService.saveEmployees(employees("paged", 25));
+		List<Long> expected = employeeService.getAllEmployees().stream().map(Employee::getId).toList();
+
+		//when- action or behaviour that we are testing
+		List<Long> ascending = pageThrough(Sort.Direction.ASC);
+		List<Long> descending = pageThrough(Sort.Direction.DESC);
+
+		//then- verify the output
+		assertThat(ascending).isEqualTo(expected).isSorted();
+		assertThat(descending).containsExactlyElementsOf(expected.reversed());
+	}
+
+	//JUnit test for multi-shard reads and writes
+	@DisplayName("JUnit test for multi-gets and bulk deletes across shards, and email updates kept on the shard")
+	@Test
+	public void givenEmployeesOnAllShards_whenMultiGetAndDelete_thenReachEveryShard() {
+		//given- precondition or setup
+		employeeService.saveEmployees(employees("multi", 12));
+		List<String> emails = IntStream.range(0, 12).mapToObj(n -> "multi-" + n + "@shards.io").toList();
+		List<Long> ids = employeeService.getEmployeesByEmails(emails).stream().map(EmployeeView::id).toList();
+		long id = ids.get(0);
+		String otherShardEmail = IntStream.range(0, 12).mapToObj(n -> "moved-" + n + "@shards.io")
+				.filter(email -> shardedEmployeeService.shardOfEmail(email) != shardedEmployeeService.shardOfId(id)).findFirst().orElseThrow();
+
+		//when- action or behaviour that we are testing
+		List<EmployeeView> byIds = employeeService.getEmployeesByIds(ids.reversed());
+		int deleted = employeeService.deleteEmployees(ids.subList(6, 12));
+
+		//then- verify the output
+		assertThat(ids).hasSize(12);
+		assertThat(byIds).extracting(EmployeeView::id).containsExactlyElementsOf(ids.reversed());
+		assertThat(deleted).isEqualTo(6);
+		assertThat(employeeService.getEmployeesByIds(ids)).hasSize(6);
+		assertThrows(BadRequestException.class, () -> employeeService.patchEmployee(id, null,
+				EmployeePatch.builder().email(otherShardEmail).build()));
+	}
+
+	private List<Long> pageThrough(Sort.Direction direction) {
+
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		do {
+			EmployeePage page = employeeService.getEmployees(cursor, 4, direction);
+			page.getContent().forEach(view -> ids.add(view.id()));
+			cursor = page.getNextCursor();
+		} while(cursor != null);
+		return ids;
+	}
+
+	private static List<Employee> employees(String prefix, int count) {
+		return IntStream.range(0, count)
+				.mapToObj(n -> Employee.builder().firstName("First" + n).lastName("Last" + n).email(prefix + "-" + n + "@shards.io").build())
+				.collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	private static DriverManagerDataSource shard(int index) {
+		return new DriverManagerDataSource("jdbc:h2:mem:sharded-" + index + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+
+}
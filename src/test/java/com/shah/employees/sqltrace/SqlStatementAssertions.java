@@ -0,0 +1,38 @@
+package com.shah.employees.sqltrace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.Supplier;
+
+/**
+ * @author Shahrukh
+ *
+ * Statement-count assertions for repository tests, which must {@code @Import(SqlTraceConfiguration.class)}.
+ * A method that suddenly runs one query per row instead of one query in total fails its test.
+ */
+public final class SqlStatementAssertions {
+
+	private SqlStatementAssertions() {
+	}
+
+	//runs the action and fails if it executed more than maxStatements statements, returns its result
+	public static <T> T assertMaxStatements(int maxStatements, Supplier<T> action) {
+
+		try(SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+			T result = action.get();
+			assertThat(scope.count())
+					.as("SQL statements executed")
+					.isLessThanOrEqualTo(maxStatements);
+			return result;
+		}
+	}
+
+	public static void assertMaxStatements(int maxStatements, Runnable action) {
+
+		assertMaxStatements(maxStatements, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+}